@@ -0,0 +1,49 @@
+package com.netflix.spring_lolomo_service.benchmark;
+
+import com.netflix.spring_lolomo_service.service.ArtworkService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Artwork URL generation for DataLoader-sized batches of titles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ArtworkServiceBenchmark {
+
+    @Param({"10", "40", "200"})
+    public int batchSize;
+
+    private ArtworkService artworkService;
+
+    private Set<String> titles;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        artworkService = new ArtworkService("1");
+        Random random = new Random(batchSize);
+        titles = new HashSet<>();
+        while (titles.size() < batchSize) {
+            titles.add(CatalogFixtures.word(random) + " " + CatalogFixtures.word(random) + " " + titles.size());
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> batchGenerator() {
+        return artworkService.batchGenerator(titles);
+    }
+}
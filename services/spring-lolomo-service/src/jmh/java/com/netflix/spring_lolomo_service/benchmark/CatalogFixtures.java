@@ -0,0 +1,123 @@
+package com.netflix.spring_lolomo_service.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generates synthetic catalogs in the shows.json format for benchmarks.
+ * <p>
+ * Catalogs are deterministic for a given size, so runs are comparable. The
+ * special size "sample" stands for the bundled shows.json.
+ */
+final class CatalogFixtures {
+
+    /**
+     * Catalog size parameter selecting the bundled sample catalog
+     */
+    static final String SAMPLE = "sample";
+
+    private static final String[] WORDS = {
+            "Stranger", "Witcher", "Money", "Heist", "Crown", "Breaking", "Bad", "Horseman", "Narcos", "Bird",
+            "Box", "Black", "Mirror", "Education", "Queen", "Gambit", "Enola", "Holmes", "Umbrella", "Academy",
+            "Haunting", "Hill", "House", "Reasons", "Extraction", "Ozark", "Squid", "Game", "Cobra", "Kai",
+            "Lucifer", "Army", "Dead", "Elite", "Old", "Guard", "Social", "Dilemma", "Russian", "Doll",
+            "Murder", "Mystery", "Serpent", "Power", "Sweet", "Tooth", "Midnight", "Sky", "Politician", "Dig"
+    };
+
+    private static final String[] CATEGORIES = {
+            "Sci-Fi", "Thriller", "Horror", "Fantasy", "Action", "Adventure", "Crime", "Drama", "History",
+            "Biography", "Animation", "Comedy", "Teen", "Romance", "Mystery", "Documentary", "Sport"
+    };
+
+    private CatalogFixtures() {
+    }
+
+    /**
+     * Writes a generated catalog to a temporary file.
+     *
+     * @param size Number of shows
+     * @return Path of the generated shows.json, deleted on exit
+     * @throws IOException if the file cannot be written
+     */
+    static Path writeCatalog(int size) throws IOException {
+        Path file = Files.createTempFile("shows-" + size + "-", ".json");
+        file.toFile().deleteOnExit();
+        Random random = new Random(size);
+
+        try (OutputStream out = Files.newOutputStream(file);
+             JsonGenerator generator = new JsonFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            for (int showId = 1; showId <= size; showId++) {
+                boolean movie = random.nextInt(3) == 0;
+                generator.writeStartObject();
+                generator.writeNumberField("showId", showId);
+                generator.writeStringField("title", words(random, 1 + random.nextInt(4)));
+                generator.writeArrayFieldStart("categories");
+                for (int i = 0; i < 3; i++) {
+                    generator.writeString(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                }
+                generator.writeEndArray();
+                generator.writeStringField("description", words(random, 12 + random.nextInt(12)));
+                generator.writeStringField("type", movie ? "MOVIE" : "SERIES");
+                if (movie) {
+                    generator.writeNullField("numberOfEpisodes");
+                    generator.writeStringField("length", (1 + random.nextInt(2)) + "h " + random.nextInt(60) + "m");
+                } else {
+                    generator.writeNumberField("numberOfEpisodes", 6 + random.nextInt(60));
+                    generator.writeNullField("length");
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        return file;
+    }
+
+    /**
+     * Returns a title prefix likely to match a realistic share of the generated titles.
+     *
+     * @param random Source of randomness
+     * @return A one to three letter prefix of a catalog word
+     */
+    static String titlePrefix(Random random) {
+        String word = WORDS[random.nextInt(WORDS.length)];
+        return word.substring(0, 1 + random.nextInt(3));
+    }
+
+    /**
+     * Returns a word used in generated titles and descriptions.
+     *
+     * @param random Source of randomness
+     * @return A catalog word
+     */
+    static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    /**
+     * Returns a category used in generated shows.
+     *
+     * @param random Source of randomness
+     * @return A category name
+     */
+    static String category(Random random) {
+        return CATEGORIES[random.nextInt(CATEGORIES.length)];
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,122 @@
+package com.netflix.spring_lolomo_service.benchmark;
+
+import com.netflix.graphql.dgs.DgsQueryExecutor;
+import com.netflix.spring_lolomo_service.SpringLolomoServiceApplication;
+import graphql.ExecutionResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end execution of client queries through {@link DgsQueryExecutor}:
+ * parsing, validation, resolvers, DataLoaders and result building, without HTTP.
+ * <p>
+ * {@link #entities} runs the router's {@code _entities} call for 1, 40 and 200
+ * representations, a single show up to several lolomo rows of another subgraph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryExecutionBenchmark {
+
+    private static final String LOLOMO_QUERY = """
+            query Lolomo {
+                lolomo {
+                    name
+                    shows { showId title description categories type numberOfEpisodes duration artworkUrl }
+                }
+            }
+            """;
+
+    private static final String SEARCH_QUERY = """
+            query Search($title: String) {
+                search(filter: {title: $title}) { showId title artworkUrl }
+            }
+            """;
+
+    private static final String ENTITIES_QUERY = """
+            query ($representations: [_Any!]!) {
+                _entities(representations: $representations) {
+                    ... on Show { showId title artworkUrl }
+                }
+            }
+            """;
+
+    @Param({CatalogFixtures.SAMPLE, "100000", "1000000"})
+    public String catalogSize;
+
+    private ConfigurableApplicationContext context;
+
+    private DgsQueryExecutor queryExecutor;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException {
+        SpringApplicationBuilder application = new SpringApplicationBuilder(SpringLolomoServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN", "lolomo.catalog.watch=false");
+        if (!catalogSize.equals(CatalogFixtures.SAMPLE)) {
+            application.properties("lolomo.catalog.path=" + CatalogFixtures.writeCatalog(Integer.parseInt(catalogSize)));
+        }
+        context = application.run();
+        queryExecutor = context.getBean(DgsQueryExecutor.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    /**
+     * Show representations as the router sends them, only used by {@link #entities}.
+     */
+    @State(Scope.Benchmark)
+    public static class Representations {
+
+        @Param({"1", "40", "200"})
+        public int count;
+
+        private Map<String, Object> variables;
+
+        @Setup(Level.Trial)
+        public void createRepresentations(QueryExecutionBenchmark benchmark) {
+            // Distinct ids while the catalog holds enough shows; the 46 sample shows repeat
+            int shows = benchmark.catalogSize.equals(CatalogFixtures.SAMPLE) ? 46 : Integer.parseInt(benchmark.catalogSize);
+            List<Map<String, Object>> representations = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                representations.add(Map.of("__typename", "Show", "showId", 1 + i % shows));
+            }
+            variables = Map.of("representations", representations);
+        }
+    }
+
+    @Benchmark
+    public ExecutionResult lolomo() {
+        return queryExecutor.execute(LOLOMO_QUERY);
+    }
+
+    @Benchmark
+    public ExecutionResult search() {
+        return queryExecutor.execute(SEARCH_QUERY, Map.of("title", "Th"));
+    }
+
+    @Benchmark
+    public ExecutionResult entities(Representations representations) {
+        return queryExecutor.execute(ENTITIES_QUERY, representations.variables);
+    }
+}
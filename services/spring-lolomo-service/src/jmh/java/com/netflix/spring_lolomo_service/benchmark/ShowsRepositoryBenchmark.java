@@ -0,0 +1,87 @@
+package com.netflix.spring_lolomo_service.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.spring_lolomo_service.codegen.types.Show;
+import com.netflix.spring_lolomo_service.repository.ShowsRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository and search lookups against catalogs from the bundled sample up to 1M shows.
+ * <p>
+ * Returned lists are consumed element by element, so the cost of materializing
+ * the Show views is part of every measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ShowsRepositoryBenchmark {
+
+    @Param({CatalogFixtures.SAMPLE, "10000", "100000", "1000000"})
+    public String catalogSize;
+
+    private ShowsRepository showsRepository;
+
+    private int maxShowId;
+
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void loadCatalog() throws IOException {
+        String path = catalogSize.equals(CatalogFixtures.SAMPLE)
+                ? null
+                : CatalogFixtures.writeCatalog(Integer.parseInt(catalogSize)).toString();
+        showsRepository = new ShowsRepository(new ObjectMapper(), path);
+        showsRepository.loadShows();
+        maxShowId = showsRepository.snapshot().size();
+        random = new Random(42);
+    }
+
+    @Benchmark
+    public Show byId() {
+        return showsRepository.byId(1 + random.nextInt(maxShowId));
+    }
+
+    @Benchmark
+    public void showsForCategory(Blackhole blackhole) {
+        consume(showsRepository.showsForCategory("Top 10"), blackhole);
+    }
+
+    @Benchmark
+    public void showsForGenre(Blackhole blackhole) {
+        // First page of a genre row, as a lolomo row would render it
+        List<Show> shows = showsRepository.showsForCategory(CatalogFixtures.category(random));
+        consume(shows.subList(0, Math.min(40, shows.size())), blackhole);
+    }
+
+    @Benchmark
+    public void searchByTitle(Blackhole blackhole) {
+        // What LolomoDataFetcher.search delegates to, with its default page size
+        consume(showsRepository.searchByTitle(CatalogFixtures.titlePrefix(random), null, 50), blackhole);
+    }
+
+    @Benchmark
+    public void searchText(Blackhole blackhole) {
+        String query = CatalogFixtures.word(random) + " " + CatalogFixtures.word(random);
+        consume(showsRepository.searchText(query, 50), blackhole);
+    }
+
+    private static void consume(List<Show> shows, Blackhole blackhole) {
+        for (Show show : shows) {
+            blackhole.consume(show);
+        }
+    }
+}
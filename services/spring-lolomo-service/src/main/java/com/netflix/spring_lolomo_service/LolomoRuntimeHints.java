@@ -0,0 +1,39 @@
+package com.netflix.spring_lolomo_service;
+
+import com.netflix.spring_lolomo_service.codegen.types.SearchInput;
+import com.netflix.spring_lolomo_service.codegen.types.Show;
+import com.netflix.spring_lolomo_service.codegen.types.ShowCategory;
+import com.netflix.spring_lolomo_service.codegen.types.ShowType;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+/**
+ * Runtime hints for the fast-start build mode (native image and AOT).
+ * <p>
+ * Spring AOT only sees what the application context declares. Beyond that:
+ * - graphql-java reads the fields of the DGS codegen types through their
+ *   getters, and DGS binds input arguments through their constructors and setters
+ * - the catalog is read from shows.json on the classpath; it is parsed with
+ *   Jackson's streaming parser, so the file itself is the only hint it needs
+ * - DGS loads the schema files by classpath pattern
+ */
+public class LolomoRuntimeHints implements RuntimeHintsRegistrar {
+
+    /**
+     * GraphQL types accessed reflectively
+     */
+    private static final List<Class<?>> GRAPHQL_TYPES = List.of(Show.class, ShowCategory.class, ShowType.class, SearchInput.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> type : GRAPHQL_TYPES) {
+            hints.reflection().registerType(type, MemberCategory.values());
+        }
+        hints.resources()
+                .registerPattern("shows.json")
+                .registerPattern("schema/*.graphqls");
+    }
+}
@@ -2,8 +2,10 @@ package com.netflix.spring_lolomo_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(LolomoRuntimeHints.class)
 public class SpringLolomoServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,85 @@
+package com.netflix.spring_lolomo_service.admin;
+
+import com.netflix.spring_lolomo_service.repository.CatalogReloader;
+import com.netflix.spring_lolomo_service.repository.ShowCatalog;
+import com.netflix.spring_lolomo_service.repository.ShowsRepository;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Actuator endpoint exposing the catalog snapshot to operators.
+ * <p>
+ * The {@code catalog} read operation describes the current snapshot and the
+ * {@code reload} write operation reloads the catalog file and atomically
+ * publishes the new snapshot.
+ * <p>
+ * Reloading is not authenticated, so the endpoint is exposed over JMX only
+ * and must not be added to {@code management.endpoints.web.exposure.include}
+ * while the actuator shares the public web port.
+ */
+@Component // Spring component annotation for dependency injection
+@Endpoint(id = "catalog") // Registers this class as an Actuator endpoint
+public class CatalogEndpoint {
+
+    /**
+     * Repository holding the current snapshot
+     */
+    private final ShowsRepository showsRepository;
+
+    /**
+     * Reloader building and publishing new snapshots
+     */
+    private final CatalogReloader catalogReloader;
+
+    /**
+     * Description of a catalog snapshot.
+     *
+     * @param version Snapshot version
+     * @param shows   Number of shows in the snapshot
+     */
+    public record CatalogInfo(long version, int shows) {
+        static CatalogInfo of(ShowCatalog catalog) {
+            return new CatalogInfo(catalog.version(), catalog.size());
+        }
+    }
+
+    /**
+     * Constructor injection for the repository and reloader dependencies.
+     *
+     * @param showsRepository Repository holding the current snapshot
+     * @param catalogReloader Reloader publishing new snapshots
+     */
+    public CatalogEndpoint(ShowsRepository showsRepository, CatalogReloader catalogReloader) {
+        this.showsRepository = showsRepository;
+        this.catalogReloader = catalogReloader;
+    }
+
+    /**
+     * Describes the current snapshot.
+     *
+     * @return Version and size of the current snapshot
+     */
+    @ReadOperation
+    public CatalogInfo catalog() {
+        return CatalogInfo.of(showsRepository.snapshot());
+    }
+
+    /**
+     * Reloads the catalog and publishes the new snapshot.
+     *
+     * @return Version and size of the published snapshot
+     */
+    @WriteOperation
+    public CatalogInfo reload() {
+        try {
+            return CatalogInfo.of(catalogReloader.reload());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to reload the catalog", e);
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package com.netflix.spring_lolomo_service.datafetcher;
 
 import com.netflix.graphql.dgs.DgsDataLoader;
-import com.netflix.spring_lolomo_service.service.ArtworkService;
+import com.netflix.spring_lolomo_service.service.ArtworkCache;
+import com.netflix.spring_lolomo_service.service.ArtworkDispatcher;
+import com.netflix.spring_lolomo_service.service.ArtworkResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.dataloader.MappedBatchLoader;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -21,22 +27,46 @@ import java.util.concurrent.CompletionStage;
  * - Request batching: Multiple individual requests are collected and executed together
  * - Caching: Results are cached for the duration of a single GraphQL request
  * - Performance optimization: Reduces the number of service calls
+ * <p>
+ * Batches additionally go through the process-wide {@link ArtworkCache}, so
+ * only titles never seen before (or expired) reach the artwork backend. Cache
+ * misses are resolved asynchronously by the {@link ArtworkDispatcher}, keeping
+ * the resolver thread free, and each title carries its own {@link ArtworkResult}
+ * so a partial failure only fails the affected fields.
  */
 @DgsDataLoader // Registers this class as a DataLoader with the DGS framework
-public class ArtworkDataLoader implements MappedBatchLoader<String, String> {
+public class ArtworkDataLoader implements MappedBatchLoader<String, ArtworkResult> {
 
     /**
-     * Service responsible for generating artwork URLs
+     * Dispatcher sending cache misses to the artwork backend
      */
-    private final ArtworkService artworkService;
+    private final ArtworkDispatcher artworkDispatcher;
 
     /**
-     * Constructor injection for the artwork service dependency.
+     * Cross-request cache of artwork URLs
+     */
+    private final ArtworkCache artworkCache;
+
+    /**
+     * Distribution of the number of keys per batch
+     */
+    private final DistributionSummary batchSize;
+
+    /**
+     * Constructor injection for the artwork dispatcher and cache dependencies.
      *
-     * @param artworkService Service instance for generating artwork URLs
+     * @param artworkDispatcher Dispatcher resolving artwork asynchronously
+     * @param artworkCache      Cache shared by all batches
+     * @param meterRegistry     Registry receiving the batch size histogram
      */
-    public ArtworkDataLoader(ArtworkService artworkService) {
-        this.artworkService = artworkService;
+    public ArtworkDataLoader(ArtworkDispatcher artworkDispatcher, ArtworkCache artworkCache, MeterRegistry meterRegistry) {
+        this.artworkDispatcher = artworkDispatcher;
+        this.artworkCache = artworkCache;
+        this.batchSize = DistributionSummary.builder("graphql.dataloader.batch.size")
+                .description("Number of keys per DataLoader batch")
+                .tag("loader", "artwork")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     /**
@@ -49,15 +79,31 @@ public class ArtworkDataLoader implements MappedBatchLoader<String, String> {
      * @param keys Set of show titles (keys) for which artwork URLs need to be fetched
      * @return CompletionStage containing a Map where:
      * - Key: Show title (String)
-     * - Value: Corresponding artwork URL (String)
-     * The map should contain entries for all provided keys
+     * - Value: Artwork URL of the title, or the error that prevented resolving it
+     * The map contains entries for all provided keys
      */
     @Override
-    public CompletionStage<Map<String, String>> load(Set<String> keys) {
-        // Delegate to the artwork service to generate URLs for all requested show titles
-        // The service handles the batching logic and returns a map of title -> artwork URL
-        return CompletableFuture.completedFuture(
-                artworkService.batchGenerator(keys)
-        );
+    public CompletionStage<Map<String, ArtworkResult>> load(Set<String> keys) {
+        batchSize.record(keys.size());
+
+        // Serve cached URLs first
+        Map<String, ArtworkResult> results = new HashMap<>(keys.size());
+        artworkCache.getAllPresent(keys).forEach((title, url) -> results.put(title, ArtworkResult.success(url)));
+        if (results.size() == keys.size()) {
+            return CompletableFuture.completedFuture(results);
+        }
+
+        // Resolve the misses in parallel backend batches and cache the successful ones
+        Set<String> missing = new HashSet<>(keys);
+        missing.removeAll(results.keySet());
+        return artworkDispatcher.fetch(missing).thenApply(fetched -> {
+            fetched.forEach((title, result) -> {
+                if (result.isSuccess()) {
+                    artworkCache.put(title, result.url());
+                }
+                results.put(title, result);
+            });
+            return results;
+        });
     }
 }
\ No newline at end of file
@@ -1,19 +1,32 @@
 package com.netflix.spring_lolomo_service.datafetcher;
 
 import com.netflix.graphql.dgs.*;
+import com.netflix.spring_lolomo_service.repository.ShowCatalog;
 import com.netflix.spring_lolomo_service.repository.ShowsRepository;
 import com.netflix.spring_lolomo_service.codegen.types.SearchInput;
 import com.netflix.spring_lolomo_service.codegen.types.Show;
 import com.netflix.spring_lolomo_service.codegen.types.ShowCategory;
+import com.netflix.spring_lolomo_service.progress.ViewingProgressStore;
+import com.netflix.spring_lolomo_service.row.DegradedPageInstrumentation;
+import com.netflix.spring_lolomo_service.row.LolomoAssembler;
+import com.netflix.spring_lolomo_service.row.LolomoPage;
+import com.netflix.spring_lolomo_service.service.ArtworkResult;
 import org.dataloader.DataLoader;
+import org.springframework.beans.factory.annotation.Value;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * GraphQL data fetcher for the LOLOMO (List of Lists of Movies) service.
  * This class handles GraphQL queries related to show categories, individual shows,
  * and search functionality using Netflix's DGS (Domain Graph Service) framework.
+ * <p>
+ * The catalog can be reloaded while queries run, so resolvers read it through
+ * {@link #catalog(DgsDataFetchingEnvironment)}, which pins one snapshot for the
+ * whole GraphQL request.
  */
 @DgsComponent // Marks this class as a DGS component for GraphQL schema binding
 public class LolomoDataFetcher {
@@ -23,29 +36,86 @@ public class LolomoDataFetcher {
      */
     private final ShowsRepository showsRepository;
 
+    /**
+     * Builds the rows of a lolomo page
+     */
+    private final LolomoAssembler lolomoAssembler;
+
+    /**
+     * Store receiving the playback heartbeats
+     */
+    private final ViewingProgressStore viewingProgressStore;
+
+    /**
+     * Upper bound on the number of shows a single search page may return
+     */
+    private final int maxSearchResults;
+
     /**
      * Constructor injection for the shows repository dependency.
      *
-     * @param showsRepository Repository instance for accessing show data
+     * @param showsRepository      Repository instance for accessing show data
+     * @param lolomoAssembler      Assembler building the rows of a lolomo page
+     * @param viewingProgressStore Store receiving the playback heartbeats
+     * @param maxSearchResults     Maximum page size for search, also used when no page size is requested
      */
-    public LolomoDataFetcher(ShowsRepository showsRepository) {
+    public LolomoDataFetcher(ShowsRepository showsRepository,
+                             LolomoAssembler lolomoAssembler,
+                             ViewingProgressStore viewingProgressStore,
+                             @Value("${lolomo.search.max-results:50}") int maxSearchResults) {
         this.showsRepository = showsRepository;
+        this.lolomoAssembler = lolomoAssembler;
+        this.viewingProgressStore = viewingProgressStore;
+        this.maxSearchResults = maxSearchResults;
     }
 
     /**
      * GraphQL query resolver that returns the main Lolomo structure.
-     * Creates a list of show categories including "Top 10" and "Continue Watching".
+     * The rows are computed concurrently by the {@link LolomoAssembler}, each
+     * within its own deadline; "Top 10" and "Continue Watching" come first.
+     * A page with rows served from fallbacks is reported in the "degraded"
+     * response extension.
      * <p>
      * Note: GraphiQL interface available at <a href="http://localhost:8080/graphiql?path=/graphql">
      *          http://localhost:8080/graphiql?path=/graphql
      *      </a>
      *
+     * @param userId User the page is built for, or null for an anonymous page
+     * @param dfe    Data fetching environment carrying the request's catalog snapshot
      * @return List of ShowCategory objects containing categorized shows
      */
     @DgsQuery // Indicates this method resolves a top-level GraphQL query
-    public List<ShowCategory> lolomo() {
-        // Build and return two predefined categories with their respective shows
-        return List.of(ShowCategory.newBuilder().name("Top 10").shows(showsRepository.showsForCategory("Top 10")).build(), ShowCategory.newBuilder().name("Continue Watching").shows(showsRepository.showsForCategory("Continue Watching")).build());
+    public List<ShowCategory> lolomo(@InputArgument Integer userId, DgsDataFetchingEnvironment dfe) {
+        // Blocks until the last row is in or past its deadline; resolvers run on virtual threads
+        LolomoPage page = lolomoAssembler.assemble(userId, catalog(dfe));
+        if (page.degraded()) {
+            DegradedPageInstrumentation.markDegraded(dfe.getGraphQlContext());
+        }
+        return page.rows();
+    }
+
+    /**
+     * GraphQL mutation resolver recording a playback heartbeat. The show moves
+     * to the front of the user's "Continue Watching" row.
+     *
+     * @param userId   Id of the user
+     * @param showId   Id of the show being watched
+     * @param position Playback position in seconds
+     * @param dfe      Data fetching environment carrying the request's catalog snapshot
+     * @return Always true; invalid heartbeats fail with an error
+     * @throws IllegalArgumentException if the show is unknown or the position negative
+     */
+    @DgsMutation // Indicates this method resolves a top-level GraphQL mutation
+    public Boolean recordProgress(@InputArgument Integer userId, @InputArgument Integer showId,
+                                  @InputArgument Integer position, DgsDataFetchingEnvironment dfe) {
+        if (catalog(dfe).find(showId) == null) {
+            throw new IllegalArgumentException("Unknown show " + showId);
+        }
+        if (position < 0) {
+            throw new IllegalArgumentException("position must not be negative");
+        }
+        viewingProgressStore.record(userId, showId, position);
+        return true;
     }
 
     /**
@@ -62,26 +132,111 @@ public class LolomoDataFetcher {
         Show show = dfe.getSourceOrThrow();
 
         // Get the DataLoader for batching artwork URL requests
-        DataLoader<String, String> dataLoader = dfe.getDataLoader(ArtworkDataLoader.class);
+        DataLoader<String, ArtworkResult> dataLoader = dfe.getDataLoader(ArtworkDataLoader.class);
 
         // Load artwork URL using the show's title as the key
-        // DataLoader will batch multiple requests and execute them efficiently
-        return dataLoader.load(show.getTitle());
+        // DataLoader will batch multiple requests and execute them efficiently;
+        // a failed title surfaces as a field error on this show only
+        return dataLoader.load(show.getTitle()).thenCompose(result -> result.isSuccess()
+                ? CompletableFuture.completedFuture(result.url())
+                : CompletableFuture.failedFuture(result.error()));
     }
 
     /**
      * GraphQL query resolver for searching shows by title.
-     * Performs case-insensitive prefix matching against show titles.
+     * Performs case- and accent-insensitive prefix matching against show titles
+     * through the repository's title index, returning one page of results.
      *
      * @param filter SearchInput containing the search criteria (title filter)
+     * @param first  Requested page size, capped at the configured maximum
+     * @param after  showId of the last show of the previous page, or null for the first page
+     * @param dfe    Data fetching environment carrying the request's catalog snapshot
      * @return List of Show objects matching the search criteria
      */
     @DgsQuery // Indicates this method resolves a top-level GraphQL query
-    public List<Show> search(@InputArgument SearchInput filter) {
-        // Stream all shows and filter by title prefix match (case-insensitive)
-        return showsRepository.allShows().stream().filter(s ->
-                // Convert both show title and search filter to lowercase for comparison
-                s.getTitle().toLowerCase().startsWith(filter.getTitle().toLowerCase())).toList();
-                // Collect filtered results into a new list
+    public List<Show> search(@InputArgument SearchInput filter, @InputArgument Integer first, @InputArgument Integer after,
+                             DgsDataFetchingEnvironment dfe) {
+        String prefix = filter == null ? null : filter.getTitle();
+
+        // Binary search over the normalized title index, materializing only the page
+        return catalog(dfe).searchByTitle(prefix, after, pageSize(first));
+    }
+
+    /**
+     * GraphQL query resolver for relevance search across titles, descriptions
+     * and categories. Results are scored with BM25 by the repository's full-text
+     * index and only the top results are kept.
+     *
+     * @param query Free text query
+     * @param first Requested number of results, capped at the configured maximum
+     * @param dfe   Data fetching environment carrying the request's catalog snapshot
+     * @return List of Show objects ordered by relevance
+     */
+    @DgsQuery // Indicates this method resolves a top-level GraphQL query
+    public List<Show> fullTextSearch(@InputArgument String query, @InputArgument Integer first,
+                                     DgsDataFetchingEnvironment dfe) {
+        return catalog(dfe).searchText(query, pageSize(first));
+    }
+
+    /**
+     * GraphQL query resolver returning the shows of several ids at once.
+     * Ids are resolved together with any federated Show entities of the same
+     * request, in one batched lookup by the {@link ShowsDataLoader}.
+     *
+     * @param ids Show ids, in any order
+     * @param dfe Data fetching environment carrying the request's catalog snapshot
+     * @return CompletableFuture of the shows in the order of {@code ids}, null for unknown ids
+     */
+    @DgsQuery // Indicates this method resolves a top-level GraphQL query
+    public CompletableFuture<List<Show>> showsByIds(@InputArgument List<Integer> ids, DgsDataFetchingEnvironment dfe) {
+        DataLoader<Integer, Show> dataLoader = dfe.getDataLoader(ShowsDataLoader.class);
+        return dataLoader.loadMany(ids, Collections.nCopies(ids.size(), catalog(dfe)));
+    }
+
+    /**
+     * GraphQL Federation entity resolver for Show entities.
+     * <p>
+     * Lets other subgraphs return bare show ids, e.g. the shows of the review
+     * service's {@code recentReviews}, and have the router resolve their catalog
+     * fields here. The framework calls this once per representation; the
+     * lookups are deferred to the {@link ShowsDataLoader}, which resolves the
+     * whole {@code _entities} call in one pass over the catalog's id index.
+     *
+     * @param values Entity representation holding the showId
+     * @param dfe    Data fetching environment carrying the request's catalog snapshot
+     * @return CompletableFuture of the show, or of null if the id is not in the catalog
+     */
+    @DgsEntityFetcher(name = "Show") // Registers this as an entity resolver for Show type
+    public CompletableFuture<Show> show(Map<String, Object> values, DgsDataFetchingEnvironment dfe) {
+        if (!(values.get("showId") instanceof Number showId)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        DataLoader<Integer, Show> dataLoader = dfe.getDataLoader(ShowsDataLoader.class);
+        return dataLoader.load(showId.intValue(), catalog(dfe));
+    }
+
+    /**
+     * Returns the catalog snapshot of the current GraphQL request.
+     * <p>
+     * The first resolver to touch the catalog stores the repository's current
+     * snapshot in the request's GraphQL context; every later resolver of the
+     * same request reuses it, even if a reload publishes a newer snapshot meanwhile.
+     *
+     * @param dfe Data fetching environment of the resolver
+     * @return The snapshot pinned for this request
+     */
+    private ShowCatalog catalog(DgsDataFetchingEnvironment dfe) {
+        return dfe.getGraphQlContext().computeIfAbsent(ShowCatalog.class, key -> showsRepository.snapshot());
+    }
+
+    /**
+     * Resolves the number of search results to return, never handing out more
+     * than the configured maximum whatever the client asks for.
+     *
+     * @param first Requested page size, or null for the maximum
+     * @return Effective page size
+     */
+    private int pageSize(Integer first) {
+        return first == null ? maxSearchResults : Math.max(0, Math.min(first, maxSearchResults));
     }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.netflix.spring_lolomo_service.datafetcher;
+
+import com.netflix.graphql.dgs.DgsDataLoader;
+import com.netflix.spring_lolomo_service.codegen.types.Show;
+import com.netflix.spring_lolomo_service.repository.ShowCatalog;
+import com.netflix.spring_lolomo_service.repository.ShowsRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.dataloader.BatchLoaderEnvironment;
+import org.dataloader.BatchLoaderWithContext;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * DataLoader batching show lookups by id.
+ * <p>
+ * When the router asks this subgraph for the catalog fields of the shows
+ * another subgraph returned, e.g. the shows of {@code recentReviews}, every
+ * representation of the {@code _entities} call loads its show through this
+ * loader. All ids requested during the same execution, including those of
+ * {@code showsByIds}, are then resolved in a single pass over the catalog's
+ * id index, and repeated ids are looked up once.
+ * <p>
+ * Every key is loaded with the catalog snapshot pinned for its request as key
+ * context, so a batch reads the same snapshot as the rest of the request.
+ * Unknown ids resolve to null.
+ */
+@DgsDataLoader // Registers this class as a DataLoader with the DGS framework
+public class ShowsDataLoader implements BatchLoaderWithContext<Integer, Show> {
+
+    /**
+     * Repository providing the current catalog when no snapshot was passed
+     */
+    private final ShowsRepository showsRepository;
+
+    /**
+     * Distribution of the number of keys per batch
+     */
+    private final DistributionSummary batchSize;
+
+    /**
+     * Constructor injection for the repository and meter registry.
+     *
+     * @param showsRepository Repository providing the current catalog
+     * @param meterRegistry   Registry receiving the batch size histogram
+     */
+    public ShowsDataLoader(ShowsRepository showsRepository, MeterRegistry meterRegistry) {
+        this.showsRepository = showsRepository;
+        this.batchSize = DistributionSummary.builder("graphql.dataloader.batch.size")
+                .description("Number of keys per DataLoader batch")
+                .tag("loader", "shows")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads all requested shows.
+     *
+     * @param keys        Show ids collected during the current execution
+     * @param environment Carries the catalog snapshot of every key
+     * @return CompletionStage containing the shows in the order of the keys, null for unknown ids
+     */
+    @Override
+    public CompletionStage<List<Show>> load(List<Integer> keys, BatchLoaderEnvironment environment) {
+        batchSize.record(keys.size());
+
+        // All keys of an execution share the request's snapshot
+        List<Object> contexts = environment.getKeyContextsList();
+        ShowCatalog catalog = !contexts.isEmpty() && contexts.get(0) instanceof ShowCatalog pinned
+                ? pinned
+                : showsRepository.snapshot();
+        return CompletableFuture.completedFuture(catalog.findAll(keys));
+    }
+}
@@ -0,0 +1,178 @@
+package com.netflix.spring_lolomo_service.incremental;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.graphql.dgs.DgsQueryExecutor;
+import com.netflix.spring_lolomo_service.metrics.OperationTags;
+import graphql.ExecutionResult;
+import graphql.incremental.DelayedIncrementalPartialResult;
+import graphql.incremental.IncrementalExecutionResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GraphQL endpoint delivering {@code @defer}red fragments incrementally.
+ * <p>
+ * {@code POST /graphql/stream} accepts the same JSON body as the regular
+ * GraphQL endpoint. If the operation defers fragments, the response is a
+ * {@code multipart/mixed} stream in the format Apollo and Relay clients
+ * understand (deferSpec=20220824): the first part holds everything that is
+ * not deferred and is flushed as soon as it is ready, e.g. the titles and
+ * descriptions of a lolomo, and every deferred fragment, e.g. its artwork
+ * URLs, follows as its own part. Operations without {@code @defer} get a
+ * plain JSON response.
+ * <p>
+ * Metrics, tagged with the operation as bounded by {@link OperationTags} and the
+ * delivery (incremental or single):
+ * - graphql.response.first-payload: time until the first part was flushed
+ * - graphql.response.complete: time until the response was complete
+ */
+@RestController // Spring MVC controller writing the response body directly
+public class IncrementalDeliveryController {
+
+    /**
+     * Content type of an incremental response, "-" being the part boundary
+     */
+    private static final MediaType MULTIPART_MIXED =
+            MediaType.parseMediaType("multipart/mixed; boundary=\"-\"; deferSpec=20220824");
+
+    /**
+     * Delimiter and headers preceding every part
+     */
+    private static final byte[] PART = "\r\n---\r\nContent-Type: application/json; charset=utf-8\r\n\r\n"
+            .getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Closing delimiter after the last part
+     */
+    private static final byte[] END = "\r\n-----\r\n".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Executes the operations with the regular DGS setup
+     */
+    private final DgsQueryExecutor dgsQueryExecutor;
+
+    /**
+     * Serializes the parts
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Registry receiving the response timers
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Bounds the operation tag values
+     */
+    private final OperationTags operationTags;
+
+    /**
+     * Response timer per name, operation tag and delivery
+     */
+    private final Map<List<String>, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor injection for the executor, object mapper, meter registry and operation tags.
+     *
+     * @param dgsQueryExecutor Executor running the operations
+     * @param objectMapper     Jackson ObjectMapper serializing the parts
+     * @param meterRegistry    Registry receiving the response timers
+     * @param operationTags    Bounds the operation tag values
+     */
+    public IncrementalDeliveryController(DgsQueryExecutor dgsQueryExecutor,
+                                         ObjectMapper objectMapper,
+                                         MeterRegistry meterRegistry,
+                                         OperationTags operationTags) {
+        this.dgsQueryExecutor = dgsQueryExecutor;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.operationTags = operationTags;
+    }
+
+    /**
+     * Executes an operation, streaming its deferred fragments.
+     *
+     * @param body       GraphQL request: query, operationName, variables and extensions
+     * @param headers    Request headers, available to the resolvers as usual
+     * @param webRequest Current request
+     * @return A multipart stream if fragments were deferred, the JSON result otherwise
+     */
+    @PostMapping(path = "${lolomo.incremental.path:/graphql/stream}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> execute(@RequestBody Map<String, Object> body,
+                                     @RequestHeader HttpHeaders headers,
+                                     WebRequest webRequest) {
+        long start = System.nanoTime();
+        String operationName = body.get("operationName") instanceof String name ? name : null;
+        ExecutionResult result = dgsQueryExecutor.execute(
+                body.get("query") instanceof String query ? query : null,
+                map(body.get("variables")),
+                IncrementalDeliveryInstrumentation.mark(map(body.get("extensions"))),
+                headers,
+                operationName,
+                webRequest);
+        String operation = operationTags.tag(operationName);
+
+        if (!(result instanceof IncrementalExecutionResult incremental) || !incremental.hasNext()) {
+            record("graphql.response.first-payload", operation, "single", start);
+            record("graphql.response.complete", operation, "single", start);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(result.toSpecification());
+        }
+
+        StreamingResponseBody stream = out -> {
+            try {
+                write(out, incremental.toSpecification());
+                record("graphql.response.first-payload", operation, "incremental", start);
+                // Parts arrive as the deferred fragments complete
+                for (DelayedIncrementalPartialResult part : Flux.from(incremental.getIncrementalItemPublisher()).toIterable()) {
+                    write(out, part.toSpecification());
+                }
+                out.write(END);
+                out.flush();
+            } finally {
+                record("graphql.response.complete", operation, "incremental", start);
+            }
+        };
+        return ResponseEntity.ok().contentType(MULTIPART_MIXED).body(stream);
+    }
+
+    /**
+     * Writes and flushes one part.
+     */
+    private void write(OutputStream out, Map<String, Object> payload) throws IOException {
+        out.write(PART);
+        out.write(objectMapper.writeValueAsBytes(payload));
+        out.flush();
+    }
+
+    private void record(String name, String operation, String delivery, long start) {
+        timers.computeIfAbsent(List.of(name, operation, delivery), tags -> Timer.builder(name)
+                        .description("GraphQL response time, first part or complete")
+                        .tag("operation", operation)
+                        .tag("delivery", delivery)
+                        .register(meterRegistry))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object value) {
+        return value instanceof Map<?, ?> map ? (Map<String, Object>) map : null;
+    }
+}
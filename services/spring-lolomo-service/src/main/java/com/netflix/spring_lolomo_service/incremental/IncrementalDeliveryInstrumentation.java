@@ -0,0 +1,57 @@
+package com.netflix.spring_lolomo_service.incremental;
+
+import graphql.ExecutionInput;
+import graphql.ExperimentalApi;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Enables graphql-java's incremental delivery ({@code @defer}) for requests of
+ * the {@link IncrementalDeliveryController}.
+ * <p>
+ * A deferred result can only be sent as a multipart response, so {@code @defer}
+ * must stay disabled on the regular GraphQL endpoint, where it is ignored and
+ * the whole result is sent at once. The controller marks its requests with an
+ * extension holding {@link #MARKER}; the marker is a Java object that no
+ * client-sent JSON can reproduce.
+ */
+@Component // Registered with the GraphQL engine as an Instrumentation bean
+public class IncrementalDeliveryInstrumentation extends SimplePerformantInstrumentation {
+
+    /**
+     * Extension key of the marker
+     */
+    static final String EXTENSION = IncrementalDeliveryInstrumentation.class.getName();
+
+    /**
+     * Identifies requests allowed to be delivered incrementally
+     */
+    static final Object MARKER = new Object();
+
+    @Override
+    public ExecutionInput instrumentExecutionInput(ExecutionInput executionInput,
+                                                   InstrumentationExecutionParameters parameters,
+                                                   InstrumentationState state) {
+        if (executionInput.getExtensions().get(EXTENSION) == MARKER) {
+            executionInput.getGraphQLContext().put(ExperimentalApi.ENABLE_INCREMENTAL_SUPPORT, true);
+        }
+        return executionInput;
+    }
+
+    /**
+     * Returns the extensions of a request with the marker added.
+     *
+     * @param extensions Extensions sent by the client, may be null
+     * @return Copy of the extensions including the marker
+     */
+    static Map<String, Object> mark(Map<String, Object> extensions) {
+        Map<String, Object> marked = extensions == null ? new HashMap<>() : new HashMap<>(extensions);
+        marked.put(EXTENSION, MARKER);
+        return marked;
+    }
+}
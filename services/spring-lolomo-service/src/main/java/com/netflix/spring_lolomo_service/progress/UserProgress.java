@@ -0,0 +1,106 @@
+package com.netflix.spring_lolomo_service.progress;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The shows a single user watched, most recent first.
+ * <p>
+ * Entries are kept in parallel arrays of at most {@code capacity} entries. A
+ * heartbeat moves its show to the front, evicting the least recent show when
+ * the list is full. Every user has its own lock, so heartbeats of different
+ * users never contend; the critical sections never block.
+ */
+final class UserProgress {
+
+    private final int[] showIds;
+    private final int[] positions;
+    private final long[] updatedAt;
+    private int size;
+
+    UserProgress(int capacity) {
+        this.showIds = new int[capacity];
+        this.positions = new int[capacity];
+        this.updatedAt = new long[capacity];
+    }
+
+    /**
+     * Records a heartbeat and moves the show to the front.
+     */
+    synchronized void record(int showId, int position, long timestamp) {
+        int index = indexOf(showId);
+        if (index < 0) {
+            // Shift everything right, dropping the least recent entry of a full list
+            index = Math.min(size, showIds.length - 1);
+            size = Math.min(size + 1, showIds.length);
+        } else if (timestamp < updatedAt[index]) {
+            // A late heartbeat must not override a newer position
+            return;
+        }
+        System.arraycopy(showIds, 0, showIds, 1, index);
+        System.arraycopy(positions, 0, positions, 1, index);
+        System.arraycopy(updatedAt, 0, updatedAt, 1, index);
+        showIds[0] = showId;
+        positions[0] = position;
+        updatedAt[0] = timestamp;
+    }
+
+    /**
+     * Returns the most recent entries.
+     *
+     * @param limit Maximum number of entries
+     * @return Up to {@code limit} entries, most recent first
+     */
+    synchronized List<ViewingProgress> recent(int limit) {
+        int count = Math.max(0, Math.min(limit, size));
+        List<ViewingProgress> recent = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            recent.add(new ViewingProgress(showIds[i], positions[i], updatedAt[i]));
+        }
+        return recent;
+    }
+
+    /**
+     * Writes the entries, most recent first.
+     */
+    synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeShort(size);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(showIds[i]);
+            out.writeInt(positions[i]);
+            out.writeLong(updatedAt[i]);
+        }
+    }
+
+    /**
+     * Reads entries written by {@link #writeTo}, keeping the most recent ones that fit.
+     */
+    static UserProgress readFrom(DataInputStream in, int capacity) throws IOException {
+        UserProgress progress = new UserProgress(capacity);
+        int entries = in.readUnsignedShort();
+        for (int i = 0; i < entries; i++) {
+            int showId = in.readInt();
+            int position = in.readInt();
+            long timestamp = in.readLong();
+            if (i < capacity) {
+                progress.showIds[i] = showId;
+                progress.positions[i] = position;
+                progress.updatedAt[i] = timestamp;
+            }
+        }
+        progress.size = Math.min(entries, capacity);
+        return progress;
+    }
+
+    private int indexOf(int showId) {
+        for (int i = 0; i < size; i++) {
+            if (showIds[i] == showId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,11 @@
+package com.netflix.spring_lolomo_service.progress;
+
+/**
+ * Latest viewing position of a user in a show.
+ *
+ * @param showId    Id of the show
+ * @param position  Playback position in seconds
+ * @param updatedAt Time of the last heartbeat, epoch milliseconds
+ */
+public record ViewingProgress(int showId, int position, long updatedAt) {
+}
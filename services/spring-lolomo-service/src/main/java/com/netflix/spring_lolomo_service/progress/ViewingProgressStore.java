@@ -0,0 +1,289 @@
+package com.netflix.spring_lolomo_service.progress;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * In-memory store of viewing progress, fed by playback heartbeats.
+ * <p>
+ * Every user has a {@link UserProgress} holding at most
+ * {@code lolomo.progress.max-shows-per-user} shows, most recent first. Users
+ * live in a concurrent map and each has its own lock, so heartbeats only
+ * contend when they are for the same user; reading the k most recent shows
+ * of a user costs O(k).
+ * <p>
+ * Heartbeats are not logged. Instead the whole store is written to a snapshot
+ * file in {@code lolomo.progress.path} every
+ * {@code lolomo.progress.snapshot-interval} if anything changed, and on
+ * shutdown. A snapshot holds only the latest position per user and show, so
+ * it stays compact however many heartbeats were received, and recovery is a
+ * single sequential read. A crash loses at most one interval of heartbeats,
+ * which the next heartbeats of an active player restore.
+ * <p>
+ * Metrics:
+ * - progress.heartbeats: heartbeats recorded
+ * - progress.users: users with viewing progress
+ * - progress.snapshot: time to write a snapshot
+ */
+@Component // Spring component annotation for dependency injection
+public class ViewingProgressStore {
+
+    /**
+     * Logger instance for snapshot loading and writing
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ViewingProgressStore.class);
+
+    /**
+     * First int of the snapshot file
+     */
+    private static final int SNAPSHOT_MAGIC = 0x56505331;
+
+    /**
+     * Name of the snapshot file inside the progress directory
+     */
+    private static final String SNAPSHOT_FILE = "progress.snapshot";
+
+    /**
+     * Directory holding the snapshot
+     */
+    private final Path directory;
+
+    /**
+     * Maximum number of shows kept per user
+     */
+    private final int maxShowsPerUser;
+
+    /**
+     * Delay between snapshots
+     */
+    private final Duration snapshotInterval;
+
+    /**
+     * Progress of every user
+     */
+    private final Map<Integer, UserProgress> users = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented by every heartbeat; a snapshot is only written when it moved
+     */
+    private final AtomicLong changes = new AtomicLong();
+
+    private final Counter heartbeats;
+    private final Timer snapshotTimer;
+
+    /**
+     * Value of {@link #changes} covered by the last snapshot
+     */
+    private long snapshotChanges;
+
+    /**
+     * Writes the periodic snapshots
+     */
+    private ScheduledExecutorService snapshotter;
+
+    /**
+     * Constructor injection for the snapshot location and store settings.
+     *
+     * @param directory        Directory holding the snapshot
+     * @param maxShowsPerUser  Maximum number of shows kept per user
+     * @param snapshotInterval Delay between snapshots
+     * @param meterRegistry    Registry receiving the store metrics
+     */
+    public ViewingProgressStore(@Value("${lolomo.progress.path:data/progress}") String directory,
+                                @Value("${lolomo.progress.max-shows-per-user:50}") int maxShowsPerUser,
+                                @Value("${lolomo.progress.snapshot-interval:30s}") Duration snapshotInterval,
+                                MeterRegistry meterRegistry) {
+        this.directory = Path.of(directory);
+        // Entry counts are stored as unsigned shorts
+        this.maxShowsPerUser = Math.max(1, Math.min(maxShowsPerUser, 0xFFFF));
+        this.snapshotInterval = snapshotInterval;
+
+        this.heartbeats = Counter.builder("progress.heartbeats")
+                .description("Viewing progress heartbeats recorded")
+                .register(meterRegistry);
+        this.snapshotTimer = Timer.builder("progress.snapshot")
+                .description("Time to write a viewing progress snapshot")
+                .register(meterRegistry);
+        Gauge.builder("progress.users", users, Map::size)
+                .description("Users with viewing progress")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Recovers the store from its snapshot and schedules the periodic snapshots.
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        loadSnapshot();
+
+        snapshotter = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("progress-snapshotter")
+                .daemon()
+                .factory());
+        long interval = snapshotInterval.toMillis();
+        snapshotter.scheduleWithFixedDelay(this::snapshot, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic snapshots and writes a final one.
+     */
+    @PreDestroy
+    public void close() {
+        if (snapshotter != null) {
+            snapshotter.shutdownNow();
+        }
+        snapshot();
+    }
+
+    /**
+     * Records a playback heartbeat.
+     *
+     * @param userId   Id of the user
+     * @param showId   Id of the show being watched
+     * @param position Playback position in seconds
+     */
+    public void record(int userId, int showId, int position) {
+        long now = System.currentTimeMillis();
+        users.computeIfAbsent(userId, id -> new UserProgress(maxShowsPerUser)).record(showId, position, now);
+        changes.incrementAndGet();
+        heartbeats.increment();
+    }
+
+    /**
+     * Returns the shows a user watched most recently.
+     *
+     * @param userId Id of the user
+     * @param limit  Maximum number of shows
+     * @return Up to {@code limit} entries, most recent first
+     */
+    public List<ViewingProgress> recent(int userId, int limit) {
+        UserProgress progress = users.get(userId);
+        return progress == null ? List.of() : progress.recent(limit);
+    }
+
+    /**
+     * Writes all progress to the snapshot file if heartbeats arrived since the
+     * last snapshot.
+     */
+    synchronized void snapshot() {
+        long changed = changes.get();
+        if (changed == snapshotChanges) {
+            return;
+        }
+
+        Path target = directory.resolve(SNAPSHOT_FILE);
+        Path temp = target.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        Timer.Sample sample = Timer.start();
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                 CheckedOutputStream checked = new CheckedOutputStream(
+                         new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), new CRC32());
+                 DataOutputStream out = new DataOutputStream(checked)) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                // Users added while writing are covered by the next snapshot; the count is written last
+                int written = 0;
+                for (Map.Entry<Integer, UserProgress> entry : users.entrySet()) {
+                    out.writeBoolean(true);
+                    out.writeInt(entry.getKey());
+                    entry.getValue().writeTo(out);
+                    written++;
+                }
+                out.writeBoolean(false);
+                out.writeInt(written);
+                out.flush();
+                out.writeLong(checked.getChecksum().getValue());
+                out.flush();
+                // The contents must be on disk before the rename can replace the previous snapshot
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            forceDirectory(directory);
+            snapshotChanges = changed;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Writing the viewing progress snapshot failed", e);
+        } finally {
+            sample.stop(snapshotTimer);
+        }
+    }
+
+    /**
+     * Makes the rename of a snapshot durable.
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform; the rename is still atomic
+        }
+    }
+
+    /**
+     * Loads the snapshot file into the store.
+     */
+    private void loadSnapshot() {
+        Path file = directory.resolve(SNAPSHOT_FILE);
+        try (InputStream input = Files.newInputStream(file);
+             CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(input, 1 << 16), new CRC32());
+             DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a viewing progress snapshot");
+            }
+            Map<Integer, UserProgress> loaded = new ConcurrentHashMap<>();
+            while (in.readBoolean()) {
+                int userId = in.readInt();
+                loaded.put(userId, UserProgress.readFrom(in, maxShowsPerUser));
+            }
+            if (in.readInt() != loaded.size()) {
+                throw new IOException("User count mismatch");
+            }
+            long checksum = checked.getChecksum().getValue();
+            if (in.readLong() != checksum) {
+                throw new IOException("Checksum mismatch");
+            }
+
+            users.putAll(loaded);
+            LOGGER.info("Restored viewing progress of {} users", loaded.size());
+        } catch (NoSuchFileException e) {
+            // First start
+        } catch (IOException e) {
+            LOGGER.warn("Ignoring unreadable viewing progress snapshot {}", file, e);
+        }
+    }
+}
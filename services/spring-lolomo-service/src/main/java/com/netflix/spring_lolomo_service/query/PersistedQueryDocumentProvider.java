@@ -0,0 +1,307 @@
+package com.netflix.spring_lolomo_service.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.netflix.graphql.dgs.context.DgsContext;
+import com.netflix.graphql.dgs.internal.DgsWebMvcRequestData;
+import graphql.ExecutionInput;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.language.Document;
+import graphql.language.OperationDefinition;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Automatic persisted queries and a cache of parsed, validated documents.
+ * <p>
+ * Registered with the GraphQL engine as its {@link PreparsedDocumentProvider}.
+ * Every document is keyed by the SHA-256 hash of its text. A hit skips parsing
+ * and validation entirely; graphql-java only runs them, and the parse and
+ * validate timers only record, on a miss.
+ * <p>
+ * Clients following the Apollo APQ protocol send
+ * {@code extensions.persistedQuery.sha256Hash} without the query text. If the
+ * hash is unknown the request fails with {@code PersistedQueryNotFound} and the
+ * client retries once with the full text, which is verified against the hash
+ * and cached. Clients sending plain queries share the same cache.
+ * <p>
+ * {@code lolomo.persisted-queries.manifest} may point at an Apollo persisted
+ * query manifest. Its operations are always known by hash. With
+ * {@code lolomo.persisted-queries.allowlist-only} set, only those operations
+ * can be executed and every other document is rejected, introspection included.
+ * <p>
+ * The {@link ResponseCacheFilter} may already have hashed the query text of
+ * an HTTP request; it passes the hash in the {@link #HASH_ATTRIBUTE} request
+ * attribute, so the text is hashed once per request. The provider also tracks
+ * which cached documents hold a {@code @cached} query, so the filter can
+ * leave every request alone while there are none.
+ * <p>
+ * Metrics: cache statistics under the cache name "graphql-documents", and
+ * graphql.documents.rejected tagged with the reason.
+ */
+@Component // Registered with the GraphQL engine as the PreparsedDocumentProvider bean
+public class PersistedQueryDocumentProvider implements PreparsedDocumentProvider {
+
+    /**
+     * Logger instance for manifest loading
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistedQueryDocumentProvider.class);
+
+    /**
+     * Extension carrying the APQ hash
+     */
+    private static final String PERSISTED_QUERY = "persistedQuery";
+
+    /**
+     * Request attribute holding the SHA-256 hex of the request's query text
+     */
+    static final String HASH_ATTRIBUTE = PersistedQueryDocumentProvider.class.getName() + ".hash";
+
+    /**
+     * Directive marking a query whose response may be cached
+     */
+    static final String CACHED = "cached";
+
+    /**
+     * Hash to parsed and validated document
+     */
+    private final Cache<String, PreparsedDocumentEntry> documents;
+
+    /**
+     * Hashes of the cached documents holding a query marked {@code @cached}
+     */
+    private final Set<String> cachedQueries = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Hash to query text of the manifest operations
+     */
+    private final Map<String, String> manifest;
+
+    /**
+     * Whether only manifest operations may run
+     */
+    private final boolean allowlistOnly;
+
+    private final Counter hashMismatches;
+    private final Counter notAllowed;
+
+    /**
+     * Creates the document cache and loads the manifest.
+     *
+     * @param objectMapper     Jackson ObjectMapper reading the manifest
+     * @param meterRegistry    Registry receiving the cache statistics
+     * @param maximumSize      Maximum number of cached documents
+     * @param manifestLocation Location of an Apollo persisted query manifest, empty for none
+     * @param allowlistOnly    Whether to reject every operation that is not in the manifest
+     * @throws IOException if the manifest cannot be read
+     */
+    public PersistedQueryDocumentProvider(ObjectMapper objectMapper,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${lolomo.persisted-queries.cache.maximum-size:2000}") long maximumSize,
+                                          @Value("${lolomo.persisted-queries.manifest:}") String manifestLocation,
+                                          @Value("${lolomo.persisted-queries.allowlist-only:false}") boolean allowlistOnly)
+            throws IOException {
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                // Entries only leave the cache by eviction; a replaced entry holds the same document
+                .evictionListener((String hash, PreparsedDocumentEntry entry, RemovalCause cause) -> cachedQueries.remove(hash))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, documents, "graphql-documents");
+
+        this.manifest = manifestLocation.isBlank() ? Map.of() : loadManifest(objectMapper, manifestLocation);
+        this.allowlistOnly = allowlistOnly;
+        if (allowlistOnly && manifest.isEmpty()) {
+            LOGGER.warn("Persisted query allowlist is enabled without a manifest; every operation will be rejected");
+        }
+
+        this.hashMismatches = Counter.builder("graphql.documents.rejected")
+                .description("Operations rejected before parsing")
+                .tag("reason", "hash_mismatch")
+                .register(meterRegistry);
+        this.notAllowed = Counter.builder("graphql.documents.rejected")
+                .description("Operations rejected before parsing")
+                .tag("reason", "not_allowed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        return CompletableFuture.completedFuture(getDocument(executionInput, parseAndValidateFunction));
+    }
+
+    /**
+     * Returns the valid document cached under a hash, without parsing anything.
+     *
+     * @param hash SHA-256 hex of the document text
+     * @return The parsed document, or null if it is not cached
+     */
+    Document cachedDocument(String hash) {
+        PreparsedDocumentEntry entry = documents.getIfPresent(hash.toLowerCase());
+        return entry == null ? null : entry.getDocument();
+    }
+
+    /**
+     * Checks whether any cached document holds a query marked {@code @cached}.
+     *
+     * @return false if no response can currently be cached
+     */
+    boolean hasCachedQueries() {
+        return !cachedQueries.isEmpty();
+    }
+
+    private PreparsedDocumentEntry getDocument(ExecutionInput executionInput,
+                                               Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        String query = executionInput.getQuery();
+        boolean hasText = query != null && !query.isBlank();
+        String requestedHash = requestedHash(executionInput);
+
+        if (!hasText) {
+            if (requestedHash == null) {
+                // Nothing to resolve; let graphql-java report the empty document
+                return parseAndValidate.apply(executionInput);
+            }
+            PreparsedDocumentEntry cached = documents.getIfPresent(requestedHash);
+            if (cached != null) {
+                return cached;
+            }
+            String persisted = manifest.get(requestedHash);
+            if (persisted == null) {
+                // Apollo clients retry with the full query text on this error
+                return new PreparsedDocumentEntry(new PersistedQueryNotFound(requestedHash));
+            }
+            return load(requestedHash, executionInput.transform(builder -> builder.query(persisted)), parseAndValidate);
+        }
+
+        String precomputed = precomputedHash(executionInput);
+        String hash = precomputed != null ? precomputed : sha256(query);
+        if (requestedHash != null && !requestedHash.equalsIgnoreCase(hash)) {
+            hashMismatches.increment();
+            return error("Provided sha256Hash does not match the query");
+        }
+        if (allowlistOnly && !manifest.containsKey(hash)) {
+            notAllowed.increment();
+            return error("Operation is not in the persisted query allowlist");
+        }
+        return load(hash, executionInput, parseAndValidate);
+    }
+
+    /**
+     * Returns the cached document or parses and validates it. Documents with
+     * errors are returned but not cached.
+     */
+    private PreparsedDocumentEntry load(String hash, ExecutionInput executionInput,
+                                        Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        PreparsedDocumentEntry cached = documents.getIfPresent(hash);
+        if (cached != null) {
+            return cached;
+        }
+        PreparsedDocumentEntry entry = parseAndValidate.apply(executionInput);
+        if (!entry.hasErrors()) {
+            documents.put(hash, entry);
+            if (hasCachedQuery(entry.getDocument())) {
+                cachedQueries.add(hash);
+            }
+        }
+        return entry;
+    }
+
+    private static boolean hasCachedQuery(Document document) {
+        return document.getDefinitionsOfType(OperationDefinition.class).stream()
+                .anyMatch(operation -> operation.getOperation() == OperationDefinition.Operation.QUERY
+                        && operation.hasDirective(CACHED));
+    }
+
+    /**
+     * Returns the hash the {@link ResponseCacheFilter} computed for this HTTP request, if any.
+     */
+    private static String precomputedHash(ExecutionInput executionInput) {
+        Optional<DgsContext> dgsContext = executionInput.getGraphQLContext().stream()
+                .map(Map.Entry::getValue)
+                .filter(DgsContext.class::isInstance)
+                .map(DgsContext.class::cast)
+                .findFirst();
+        if (dgsContext.isPresent()
+                && dgsContext.get().getRequestData() instanceof DgsWebMvcRequestData requestData
+                && requestData.getWebRequest() != null
+                && requestData.getWebRequest().getAttribute(HASH_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof String hash) {
+            return hash;
+        }
+        return null;
+    }
+
+    private static String requestedHash(ExecutionInput executionInput) {
+        if (executionInput.getExtensions().get(PERSISTED_QUERY) instanceof Map<?, ?> persistedQuery
+                && persistedQuery.get("sha256Hash") instanceof String hash) {
+            return hash.toLowerCase();
+        }
+        return null;
+    }
+
+    private static PreparsedDocumentEntry error(String message) {
+        GraphQLError error = GraphqlErrorBuilder.newError().message(message).build();
+        return new PreparsedDocumentEntry(error);
+    }
+
+    /**
+     * Reads the operations of an Apollo persisted query manifest:
+     * {@code {"operations": [{"id": "<sha256>", "body": "<query>", ...}]}}.
+     */
+    private static Map<String, String> loadManifest(ObjectMapper objectMapper, String location) throws IOException {
+        Resource resource = new DefaultResourceLoader().getResource(location);
+        try (InputStream inputStream = resource.getInputStream()) {
+            JsonNode operations = objectMapper.readTree(inputStream).path("operations");
+            Map<String, String> manifest = new HashMap<>(operations.size());
+            for (JsonNode operation : operations) {
+                String body = operation.path("body").asText();
+                String id = operation.path("id").asText(sha256(body)).toLowerCase();
+                if (!id.equals(sha256(body))) {
+                    throw new IOException("Manifest operation " + id + " does not match the SHA-256 of its body");
+                }
+                manifest.put(id, body);
+            }
+            LOGGER.info("Loaded {} persisted queries from {}", manifest.size(), location);
+            return Map.copyOf(manifest);
+        }
+    }
+
+    static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
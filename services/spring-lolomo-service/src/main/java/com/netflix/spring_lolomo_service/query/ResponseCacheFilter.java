@@ -0,0 +1,383 @@
+package com.netflix.spring_lolomo_service.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.netflix.spring_lolomo_service.repository.ShowsRepository;
+import com.netflix.spring_lolomo_service.row.DegradedPageInstrumentation;
+import graphql.language.Document;
+import graphql.language.OperationDefinition;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the serialized HTTP response of GraphQL queries marked {@code @cached}.
+ * <p>
+ * Only operations whose result is the same for every caller may be marked,
+ * e.g. {@code query Lolomo @cached { lolomo { ... } }}. A cached response is
+ * written straight from its bytes: no execution, no DataLoaders and no JSON
+ * serialization.
+ * <p>
+ * The key combines the document hash, the operation name, the variables
+ * (with sorted keys) and the version of the current catalog snapshot. When a
+ * reload publishes a new snapshot, the old entries can no longer be reached
+ * and the whole cache is cleared on the next request.
+ * <p>
+ * The directive is read from the document already parsed and cached by
+ * {@link PersistedQueryDocumentProvider}; the filter never parses GraphQL
+ * itself. The first request of a new document therefore always executes.
+ * While the provider holds no {@code @cached} query at all, requests pass
+ * through without their body being read. Otherwise the hash computed here
+ * is handed on to the provider, so each query text is hashed once.
+ * Responses with errors, degraded lolomo pages (rows served from fallbacks)
+ * and non-200 responses are never stored, and entries expire after
+ * {@code lolomo.response-cache.ttl} even if the catalog does not change. Only
+ * POST requests on the GraphQL path are considered.
+ * <p>
+ * Metrics: cache statistics under the cache name "graphql-responses".
+ */
+@Component // Servlet filter registered by Spring Boot in front of the GraphQL endpoint
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    /**
+     * Request attribute carrying the cache key across an async dispatch
+     */
+    private static final String KEY_ATTRIBUTE = ResponseCacheFilter.class.getName() + ".key";
+
+    /**
+     * Parses request bodies and checks responses for errors
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes variables with sorted keys, so equal variables give equal keys
+     */
+    private final ObjectWriter variablesWriter;
+
+    /**
+     * Source of the parsed documents
+     */
+    private final PersistedQueryDocumentProvider documentProvider;
+
+    /**
+     * Repository whose catalog version is part of the key
+     */
+    private final ShowsRepository showsRepository;
+
+    /**
+     * Path of the GraphQL endpoint
+     */
+    private final String graphqlPath;
+
+    /**
+     * Serialized responses, weighed by their size
+     */
+    private final Cache<ResponseKey, CachedResponse> responses;
+
+    /**
+     * Catalog version the cached responses belong to
+     */
+    private final AtomicLong cachedVersion = new AtomicLong();
+
+    /**
+     * Creates the response cache.
+     *
+     * @param objectMapper     Jackson ObjectMapper for request and response bodies
+     * @param documentProvider Provider holding the parsed documents
+     * @param showsRepository  Repository holding the catalog snapshot
+     * @param meterRegistry    Registry receiving the cache statistics
+     * @param graphqlPath      Path of the GraphQL endpoint
+     * @param maximumSize      Maximum total size of the cached responses
+     * @param ttl              Time a response is served after it was stored
+     */
+    public ResponseCacheFilter(ObjectMapper objectMapper,
+                               PersistedQueryDocumentProvider documentProvider,
+                               ShowsRepository showsRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${dgs.graphql.path:/graphql}") String graphqlPath,
+                               @Value("${lolomo.response-cache.maximum-size:32MB}") DataSize maximumSize,
+                               @Value("${lolomo.response-cache.ttl:1m}") Duration ttl) {
+        this.objectMapper = objectMapper;
+        this.variablesWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.documentProvider = documentProvider;
+        this.showsRepository = showsRepository;
+        this.graphqlPath = graphqlPath;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((ResponseKey key, CachedResponse response) -> response.body().length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "graphql-responses");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod())
+                || !graphqlPath.equals(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // The GraphQL handler completes asynchronously; the response is stored on the final dispatch
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            chain.doFilter(request, response);
+            store(request, response);
+            return;
+        }
+        if (!documentProvider.hasCachedQueries()) {
+            // Nothing can be cached; don't buffer or parse the body
+            chain.doFilter(request, response);
+            return;
+        }
+
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        HttpServletRequest replay = new ReplayedBodyRequest(request, body);
+        ResponseKey key = key(body, request);
+        if (key == null) {
+            chain.doFilter(replay, response);
+            return;
+        }
+
+        CachedResponse cached = responses.getIfPresent(key);
+        if (cached != null) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(cached.contentType());
+            response.setContentLength(cached.body().length);
+            response.getOutputStream().write(cached.body());
+            return;
+        }
+
+        request.setAttribute(KEY_ATTRIBUTE, key);
+        ContentCachingResponseWrapper capture = new ContentCachingResponseWrapper(response);
+        chain.doFilter(replay, capture);
+        if (!isAsyncStarted(replay)) {
+            store(replay, capture);
+        }
+    }
+
+    /**
+     * Stores a captured response if it is cacheable and writes it to the client.
+     */
+    private void store(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ContentCachingResponseWrapper capture = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (capture == null) {
+            return;
+        }
+        byte[] body = capture.getContentAsByteArray();
+        if (request.getAttribute(KEY_ATTRIBUTE) instanceof ResponseKey key
+                && capture.getStatus() == HttpServletResponse.SC_OK
+                && capture.getContentType() != null
+                && complete(body)) {
+            responses.put(key, new CachedResponse(capture.getContentType(), body));
+        }
+        capture.copyBodyToResponse();
+    }
+
+    /**
+     * Builds the cache key of a request, or returns null if its operation is not
+     * marked {@code @cached} or its document is not parsed yet. The hash of a
+     * query text is left in a request attribute for the document provider.
+     */
+    private ResponseKey key(byte[] body, HttpServletRequest servletRequest) throws IOException {
+        JsonNode request;
+        try {
+            request = objectMapper.readTree(body);
+        } catch (IOException e) {
+            // Malformed bodies are for the GraphQL handler to reject
+            return null;
+        }
+        if (request == null || !request.isObject()) {
+            return null;
+        }
+
+        String query = request.path("query").asText("");
+        String hash;
+        if (query.isBlank()) {
+            hash = request.path("extensions").path("persistedQuery").path("sha256Hash").asText("");
+        } else {
+            hash = PersistedQueryDocumentProvider.sha256(query);
+            servletRequest.setAttribute(PersistedQueryDocumentProvider.HASH_ATTRIBUTE, hash);
+        }
+        if (hash.isBlank()) {
+            return null;
+        }
+        Document document = documentProvider.cachedDocument(hash);
+        String operationName = request.path("operationName").asText("");
+        if (document == null || !cacheable(document, operationName)) {
+            return null;
+        }
+
+        JsonNode variables = request.path("variables");
+        String canonicalVariables = variables.isObject()
+                ? variablesWriter.writeValueAsString(objectMapper.treeToValue(variables, Object.class))
+                : "";
+        return new ResponseKey(hash.toLowerCase(), operationName, canonicalVariables, catalogVersion());
+    }
+
+    /**
+     * Returns the version of the current catalog, clearing the cache the first
+     * time a new version is seen.
+     */
+    private long catalogVersion() {
+        long version = showsRepository.snapshot().version();
+        long previous = cachedVersion.getAndSet(version);
+        if (previous != version) {
+            responses.invalidateAll();
+        }
+        return version;
+    }
+
+    /**
+     * Checks whether the selected operation is a query marked {@code @cached}.
+     */
+    private static boolean cacheable(Document document, String operationName) {
+        OperationDefinition selected = null;
+        for (OperationDefinition operation : document.getDefinitionsOfType(OperationDefinition.class)) {
+            if (operationName.isEmpty() || operationName.equals(operation.getName())) {
+                if (selected != null) {
+                    // Ambiguous; graphql-java reports it
+                    return false;
+                }
+                selected = operation;
+            }
+        }
+        return selected != null
+                && selected.getOperation() == OperationDefinition.Operation.QUERY
+                && selected.hasDirective(PersistedQueryDocumentProvider.CACHED);
+    }
+
+    /**
+     * Checks that a response has no errors and is not a degraded page.
+     */
+    private boolean complete(byte[] body) {
+        try {
+            JsonNode result = objectMapper.readTree(body);
+            return !result.has("errors")
+                    && !result.path("extensions").path(DegradedPageInstrumentation.EXTENSION).asBoolean(false);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Identifies a cacheable response.
+     */
+    private record ResponseKey(String documentHash, String operationName, String variables, long catalogVersion) {
+    }
+
+    /**
+     * A serialized response.
+     */
+    private record CachedResponse(String contentType, byte[] body) {
+    }
+
+    /**
+     * Serves a request body that was already read by the filter.
+     */
+    private static class ReplayedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        ReplayedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return inputStream.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * The whole body is in memory, so the listener is called back right away:
+                 * once for the available data, unless the body is empty, and once after
+                 * all data was read. A listener reads until isReady() is false, which never
+                 * happens before the end of the body.
+                 */
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return inputStream.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return inputStream.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
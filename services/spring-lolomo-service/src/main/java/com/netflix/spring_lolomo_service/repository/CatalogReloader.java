@@ -0,0 +1,210 @@
+package com.netflix.spring_lolomo_service.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Triggers catalog reloads and records their metrics.
+ * <p>
+ * Reloads are started either by the admin endpoint or, when an external
+ * catalog path is configured, by a file watcher on that path. In both cases
+ * the new snapshot is built on the triggering thread, never on a GraphQL
+ * request thread, and published by {@link ShowsRepository#reload()}.
+ * <p>
+ * Metrics:
+ * - catalog.reload: reload duration, tagged with the outcome
+ * - catalog.shows: number of shows in the current snapshot
+ * - catalog.version: version of the current snapshot
+ */
+@Component // Spring component annotation for dependency injection
+public class CatalogReloader {
+
+    /**
+     * Logger instance for reload outcomes
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogReloader.class);
+
+    /**
+     * Repository whose snapshot gets replaced
+     */
+    private final ShowsRepository showsRepository;
+
+    /**
+     * Registry receiving the reload metrics
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Whether the external catalog file is watched for changes
+     */
+    private final boolean watchEnabled;
+
+    /**
+     * Quiet period after the last file event before reloading, so a file
+     * being written in several steps triggers a single reload
+     */
+    private final Duration debounce;
+
+    /**
+     * File watcher, null when watching is disabled
+     */
+    private WatchService watchService;
+
+    /**
+     * Thread consuming file events
+     */
+    private Thread watcherThread;
+
+    /**
+     * Constructor injection for the repository and meter registry dependencies.
+     *
+     * @param showsRepository Repository holding the catalog snapshot
+     * @param meterRegistry   Registry for reload metrics
+     * @param watchEnabled    Whether to reload automatically when the external catalog file changes
+     * @param debounce        Quiet period after the last file change before reloading
+     */
+    public CatalogReloader(ShowsRepository showsRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${lolomo.catalog.watch:true}") boolean watchEnabled,
+                           @Value("${lolomo.catalog.watch-debounce:500ms}") Duration debounce) {
+        this.showsRepository = showsRepository;
+        this.meterRegistry = meterRegistry;
+        this.watchEnabled = watchEnabled;
+        this.debounce = debounce;
+    }
+
+    /**
+     * Registers the snapshot gauges and starts the file watcher if an external
+     * catalog path is configured.
+     *
+     * @throws IOException if the watch service cannot be created
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        Gauge.builder("catalog.shows", showsRepository, repository -> repository.snapshot().size())
+                .description("Number of shows in the current catalog snapshot")
+                .register(meterRegistry);
+        Gauge.builder("catalog.version", showsRepository, repository -> repository.snapshot().version())
+                .description("Version of the current catalog snapshot")
+                .register(meterRegistry);
+
+        Path catalogPath = showsRepository.catalogPath();
+        if (!watchEnabled || catalogPath == null) {
+            return;
+        }
+
+        Path directory = catalogPath.toAbsolutePath().getParent();
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+
+        watcherThread = Thread.ofPlatform()
+                .name("catalog-watcher")
+                .daemon()
+                .start(() -> watch(catalogPath.getFileName()));
+        LOGGER.info("Watching {} for catalog changes", catalogPath);
+    }
+
+    /**
+     * Stops the file watcher.
+     *
+     * @throws IOException if the watch service cannot be closed
+     */
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watcherThread.interrupt();
+        }
+    }
+
+    /**
+     * Builds and publishes a new catalog snapshot, recording its duration.
+     *
+     * @return The published snapshot
+     * @throws IOException if the catalog cannot be loaded; the previous snapshot stays active
+     */
+    public ShowCatalog reload() throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            ShowCatalog catalog = showsRepository.reload();
+            outcome = "success";
+            LOGGER.info("Published catalog version {} with {} shows", catalog.version(), catalog.size());
+            return catalog;
+        } finally {
+            sample.stop(Timer.builder("catalog.reload")
+                    .description("Time to load, index and publish a catalog snapshot")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Consumes file events for the catalog file and reloads once changes settle.
+     *
+     * @param fileName Name of the catalog file inside the watched directory
+     */
+    private void watch(Path fileName) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = containsCatalog(key, fileName);
+
+                // Keep absorbing events until the file has been quiet for the debounce period
+                while (changed) {
+                    WatchKey next = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    containsCatalog(next, fileName);
+                }
+
+                if (changed) {
+                    try {
+                        reload();
+                    } catch (IOException | RuntimeException e) {
+                        LOGGER.error("Catalog reload failed, keeping the current snapshot", e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    /**
+     * Drains the events of a watch key and re-arms it.
+     *
+     * @return Whether any event concerned the catalog file
+     */
+    private static boolean containsCatalog(WatchKey key, Path fileName) {
+        boolean found = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (fileName.equals(event.context())) {
+                found = true;
+            }
+        }
+        key.reset();
+        return found;
+    }
+}
@@ -0,0 +1,294 @@
+package com.netflix.spring_lolomo_service.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Inverted index over show titles, descriptions and categories scored with BM25.
+ * <p>
+ * Each term maps to a compact postings list: parallel primitive arrays of
+ * catalog positions (ascending) and field-weighted term frequencies. Queries
+ * are evaluated document-at-a-time by merging the postings of the query terms,
+ * and only the best {@code limit} documents are kept in a bounded heap, so the
+ * cost of a query never includes sorting every match.
+ * <p>
+ * Memory is bounded by capping the number of indexed tokens per show and the
+ * length of a single token; everything past the cap is ignored.
+ */
+final class FullTextIndex {
+
+    /**
+     * BM25 term frequency saturation
+     */
+    private static final float K1 = 1.2f;
+
+    /**
+     * BM25 document length normalization
+     */
+    private static final float B = 0.75f;
+
+    /**
+     * Weight of a title token relative to a description token
+     */
+    static final int TITLE_WEIGHT = 3;
+
+    /**
+     * Weight of a category token relative to a description token
+     */
+    static final int CATEGORY_WEIGHT = 2;
+
+    /**
+     * Weight of a description token
+     */
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    /**
+     * Maximum number of tokens indexed per show, across all fields
+     */
+    static final int MAX_TOKENS_PER_SHOW = 256;
+
+    /**
+     * Tokens longer than this are truncated
+     */
+    static final int MAX_TOKEN_LENGTH = 32;
+
+    /**
+     * Term to postings
+     */
+    private final Map<String, Postings> terms;
+
+    /**
+     * Weighted token count of each show, indexed by catalog position
+     */
+    private final int[] documentLengths;
+
+    /**
+     * Average weighted token count over all shows
+     */
+    private final float averageLength;
+
+    /**
+     * Compact postings of a single term.
+     *
+     * @param positions   Catalog positions containing the term, ascending
+     * @param frequencies Field-weighted term frequency per position
+     */
+    private record Postings(int[] positions, short[] frequencies) {
+    }
+
+    /**
+     * Scored catalog position held in the top-k heap.
+     *
+     * @param position Catalog position
+     * @param score    BM25 score
+     */
+    private record Hit(int position, float score) {
+    }
+
+    private FullTextIndex(Map<String, Postings> terms, int[] documentLengths) {
+        this.terms = terms;
+        this.documentLengths = documentLengths;
+        long total = 0;
+        for (int length : documentLengths) {
+            total += length;
+        }
+        this.averageLength = documentLengths.length == 0 ? 1f : Math.max(1f, (float) total / documentLengths.length);
+    }
+
+    /**
+     * Starts building an index for the given number of shows.
+     *
+     * @param expectedSize Number of shows that will be added
+     * @return A new builder
+     */
+    static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    /**
+     * Splits text into normalized tokens (see {@link TitlePrefixIndex#normalize(String)}),
+     * breaking on every character that is neither a letter nor a digit.
+     *
+     * @param text The text to tokenize, may be null
+     * @return Tokens in text order
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = TitlePrefixIndex.normalize(text);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean tokenChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(normalized.substring(start, Math.min(i, start + MAX_TOKEN_LENGTH)));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the catalog positions of the best matching shows, best first.
+     * Ties are broken by catalog position so the ranking is stable.
+     *
+     * @param query Free text query
+     * @param limit Maximum number of results
+     * @return Catalog positions ordered by descending BM25 score
+     */
+    int[] search(String query, int limit) {
+        List<Postings> postings = new ArrayList<>();
+        for (String token : tokenize(query)) {
+            Postings termPostings = terms.get(token);
+            if (termPostings != null && !postings.contains(termPostings)) {
+                postings.add(termPostings);
+            }
+        }
+        if (postings.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+
+        int documentCount = documentLengths.length;
+        float[] idf = new float[postings.size()];
+        for (int t = 0; t < idf.length; t++) {
+            int df = postings.get(t).positions().length;
+            idf[t] = (float) Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+        }
+
+        // Min-heap of the current top-k: the root is the weakest hit and is evicted first
+        PriorityQueue<Hit> heap = new PriorityQueue<>(limit + 1, (a, b) -> a.score() != b.score()
+                ? Float.compare(a.score(), b.score())
+                : Integer.compare(b.position(), a.position()));
+
+        // Document-at-a-time merge of the postings lists
+        int[] cursors = new int[postings.size()];
+        while (true) {
+            int position = Integer.MAX_VALUE;
+            for (int t = 0; t < cursors.length; t++) {
+                int[] positions = postings.get(t).positions();
+                if (cursors[t] < positions.length) {
+                    position = Math.min(position, positions[cursors[t]]);
+                }
+            }
+            if (position == Integer.MAX_VALUE) {
+                break;
+            }
+
+            float norm = K1 * (1 - B + B * documentLengths[position] / averageLength);
+            float score = 0;
+            for (int t = 0; t < cursors.length; t++) {
+                Postings termPostings = postings.get(t);
+                if (cursors[t] < termPostings.positions().length && termPostings.positions()[cursors[t]] == position) {
+                    int tf = termPostings.frequencies()[cursors[t]];
+                    score += idf[t] * tf * (K1 + 1) / (tf + norm);
+                    cursors[t]++;
+                }
+            }
+
+            heap.offer(new Hit(position, score));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+
+        int[] result = new int[heap.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = heap.poll().position();
+        }
+        return result;
+    }
+
+    /**
+     * Accumulates postings show by show. Shows must be added in catalog order.
+     */
+    static final class Builder {
+
+        /**
+         * Growable postings of a term while the index is being built
+         */
+        private static final class MutablePostings {
+            private int[] positions = new int[4];
+            private short[] frequencies = new short[4];
+            private int size;
+
+            private void add(int position, int frequency) {
+                if (size == positions.length) {
+                    positions = Arrays.copyOf(positions, size * 2);
+                    frequencies = Arrays.copyOf(frequencies, size * 2);
+                }
+                positions[size] = position;
+                frequencies[size] = (short) Math.min(frequency, Short.MAX_VALUE);
+                size++;
+            }
+
+            private Postings freeze() {
+                return new Postings(Arrays.copyOf(positions, size), Arrays.copyOf(frequencies, size));
+            }
+        }
+
+        private final Map<String, MutablePostings> terms = new HashMap<>();
+        private int[] documentLengths;
+        private int size;
+
+        private Builder(int expectedSize) {
+            this.documentLengths = new int[Math.max(16, expectedSize)];
+        }
+
+        /**
+         * Indexes the next show.
+         *
+         * @param title       Show title
+         * @param description Show description
+         * @param categories  Show categories
+         */
+        void add(String title, String description, List<String> categories) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            int[] budget = {MAX_TOKENS_PER_SHOW};
+            int length = addField(frequencies, tokenize(title), TITLE_WEIGHT, budget);
+            if (categories != null) {
+                for (String category : categories) {
+                    length += addField(frequencies, tokenize(category), CATEGORY_WEIGHT, budget);
+                }
+            }
+            length += addField(frequencies, tokenize(description), DESCRIPTION_WEIGHT, budget);
+
+            int position = size++;
+            if (position == documentLengths.length) {
+                documentLengths = Arrays.copyOf(documentLengths, position * 2);
+            }
+            documentLengths[position] = length;
+            frequencies.forEach((term, frequency) ->
+                    terms.computeIfAbsent(term, t -> new MutablePostings()).add(position, frequency));
+        }
+
+        private static int addField(Map<String, Integer> frequencies, List<String> tokens, int weight, int[] budget) {
+            int length = 0;
+            for (String token : tokens) {
+                if (budget[0]-- <= 0) {
+                    break;
+                }
+                frequencies.merge(token, weight, Integer::sum);
+                length += weight;
+            }
+            return length;
+        }
+
+        /**
+         * Freezes the accumulated postings into an immutable index.
+         *
+         * @return The built index
+         */
+        FullTextIndex build() {
+            Map<String, Postings> frozen = new HashMap<>(terms.size() * 4 / 3 + 1);
+            terms.forEach((term, postings) -> frozen.put(term, postings.freeze()));
+            return new FullTextIndex(frozen, Arrays.copyOf(documentLengths, size));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.netflix.spring_lolomo_service.repository;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash index mapping primitive {@code int} keys to positions.
+ * <p>
+ * Used by {@link ShowCatalog} to resolve show ids to their position in the
+ * catalog without boxing the key or walking a linked bucket structure. The
+ * index is filled once while the catalog is built and is read-only afterwards,
+ * so lookups are safe from any thread.
+ */
+final class IntIndex {
+
+    /**
+     * Marker stored in {@link #positions} for an unused slot
+     */
+    private static final int EMPTY = -1;
+
+    /**
+     * Hash table keys, sized to a power of two for mask-based probing
+     */
+    private final int[] keys;
+
+    /**
+     * Position stored for the key in the same slot, or {@link #EMPTY}
+     */
+    private final int[] positions;
+
+    /**
+     * Bit mask used to wrap probe sequences around the table
+     */
+    private final int mask;
+
+    /**
+     * Creates an index able to hold the given number of keys at a load factor of at most 0.5.
+     *
+     * @param expectedSize Number of keys that will be inserted
+     */
+    IntIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+        this.keys = new int[capacity];
+        this.positions = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(positions, EMPTY);
+    }
+
+    /**
+     * Associates a key with a position. The first position stored for a key wins,
+     * matching the "first match" semantics of the previous linear scan.
+     *
+     * @param key      The key to insert
+     * @param position The non-negative position to associate with the key
+     */
+    void put(int key, int position) {
+        int slot = slot(key);
+        while (positions[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        positions[slot] = position;
+    }
+
+    /**
+     * Looks up the position stored for a key.
+     *
+     * @param key The key to look up
+     * @return The stored position, or -1 if the key is not present
+     */
+    int get(int key) {
+        int slot = slot(key);
+        while (positions[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return positions[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Spreads the key bits (Fibonacci hashing) so sequential ids don't cluster.
+     */
+    private int slot(int key) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,536 @@
+package com.netflix.spring_lolomo_service.repository;
+
+import com.netflix.spring_lolomo_service.codegen.types.Show;
+import com.netflix.spring_lolomo_service.codegen.types.ShowType;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable, pre-indexed, column-oriented store of the show catalog.
+ * <p>
+ * Show attributes are kept in parallel arrays indexed by catalog position
+ * instead of one object per show: primitive arrays for ids and episode counts,
+ * enum ordinals for the show type, and category ordinals pointing into a
+ * single table of interned category names. {@link Show} objects are only
+ * created when a request actually reads a show, through lightweight list views.
+ * <p>
+ * All indexes are built once when the catalog is created so that the lookups
+ * on the request path are constant time:
+ * - Id index: primitive int-keyed hash index from showId to catalog position
+ * - Category index: inverted category name to catalog positions
+ * - Row index: precomputed positions for the predefined lolomo rows
+ * - Title index: sorted normalized titles for prefix (typeahead) search
+ * - Text index: BM25 inverted index over title, description and categories
+ * <p>
+ * Every catalog gets a process-unique, increasing {@link #version()}, so callers
+ * can tell snapshots apart after a reload.
+ */
+public final class ShowCatalog {
+
+    /**
+     * Name of the row containing the first ten shows of the catalog
+     */
+    public static final String TOP_10 = "Top 10";
+
+    /**
+     * Name of the row of the user's in-progress shows; the catalog only holds a
+     * fixed, simulated version, lolomo pages read it from the viewing progress
+     */
+    public static final String CONTINUE_WATCHING = "Continue Watching";
+
+    /**
+     * Stored in {@link #episodes} when a show has no episode count
+     */
+    private static final int NO_EPISODES = Integer.MIN_VALUE;
+
+    /**
+     * Stored in {@link #types} when a show has no type
+     */
+    private static final byte NO_TYPE = -1;
+
+    /**
+     * Enum constants indexed by the ordinals stored in {@link #types}
+     */
+    private static final ShowType[] SHOW_TYPES = ShowType.values();
+
+    /**
+     * Source of catalog versions
+     */
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    /**
+     * Version of this catalog, increasing with every catalog built
+     */
+    private final long version;
+
+    /**
+     * Number of shows in the catalog
+     */
+    private final int size;
+
+    /**
+     * showId of each show
+     */
+    private final int[] showIds;
+
+    /**
+     * Title of each show
+     */
+    private final String[] titles;
+
+    /**
+     * Description of each show
+     */
+    private final String[] descriptions;
+
+    /**
+     * ShowType ordinal of each show, or {@link #NO_TYPE}
+     */
+    private final byte[] types;
+
+    /**
+     * Number of episodes of each show, or {@link #NO_EPISODES}
+     */
+    private final int[] episodes;
+
+    /**
+     * Duration (the JSON "length" field) of each show
+     */
+    private final String[] durations;
+
+    /**
+     * Start of each show's category ordinals in {@link #categoryRefs}; show {@code p}
+     * owns the range {@code [categoryStarts[p], categoryStarts[p + 1])}
+     */
+    private final int[] categoryStarts;
+
+    /**
+     * Category ordinals of all shows, concatenated in catalog order
+     */
+    private final int[] categoryRefs;
+
+    /**
+     * Interned category names indexed by ordinal
+     */
+    private final String[] categoryNames;
+
+    /**
+     * showId to catalog position
+     */
+    private final IntIndex idIndex;
+
+    /**
+     * Category (and predefined row) name to catalog positions
+     */
+    private final Map<String, int[]> categoryIndex;
+
+    /**
+     * Normalized title prefix index
+     */
+    private final TitlePrefixIndex titleIndex;
+
+    /**
+     * Full-text relevance index
+     */
+    private final FullTextIndex textIndex;
+
+    /**
+     * Creates the catalog from the columns accumulated by a {@link Builder} and
+     * builds all of its indexes.
+     */
+    private ShowCatalog(Builder builder) {
+        this.version = VERSIONS.incrementAndGet();
+        this.size = builder.size;
+        this.showIds = Arrays.copyOf(builder.showIds, size);
+        this.titles = Arrays.copyOf(builder.titles, size);
+        this.descriptions = Arrays.copyOf(builder.descriptions, size);
+        this.types = Arrays.copyOf(builder.types, size);
+        this.episodes = Arrays.copyOf(builder.episodes, size);
+        this.durations = Arrays.copyOf(builder.durations, size);
+        this.categoryStarts = Arrays.copyOf(builder.categoryStarts, size + 1);
+        this.categoryRefs = Arrays.copyOf(builder.categoryRefs, builder.categoryStarts[size]);
+        this.categoryNames = builder.categoryNames.toArray(new String[0]);
+
+        this.idIndex = new IntIndex(size);
+        FullTextIndex.Builder text = FullTextIndex.builder(size);
+        int[] categorySizes = new int[categoryNames.length];
+        for (int position = 0; position < size; position++) {
+            idIndex.put(showIds[position], position);
+            text.add(titles[position], descriptions[position], categories(position));
+            for (int ref = categoryStarts[position]; ref < categoryStarts[position + 1]; ref++) {
+                categorySizes[categoryRefs[ref]]++;
+            }
+        }
+
+        // Inverted category postings, filled in catalog order
+        int[][] postings = new int[categoryNames.length][];
+        for (int ordinal = 0; ordinal < postings.length; ordinal++) {
+            postings[ordinal] = new int[categorySizes[ordinal]];
+        }
+        int[] fill = new int[categoryNames.length];
+        for (int position = 0; position < size; position++) {
+            for (int ref = categoryStarts[position]; ref < categoryStarts[position + 1]; ref++) {
+                int ordinal = categoryRefs[ref];
+                postings[ordinal][fill[ordinal]++] = position;
+            }
+        }
+
+        Map<String, int[]> index = new HashMap<>(categoryNames.length + 2);
+        for (int ordinal = 0; ordinal < postings.length; ordinal++) {
+            index.put(categoryNames[ordinal], postings[ordinal]);
+        }
+
+        // Predefined rows override a category of the same name, as they did before indexing
+        int[] topTen = new int[Math.min(10, size)];
+        Arrays.setAll(topTen, position -> position);
+        index.put(TOP_10, topTen);
+        if (size > 9) {
+            index.put(CONTINUE_WATCHING, new int[]{9, 7, 0});
+        }
+        this.categoryIndex = Map.copyOf(index);
+
+        this.titleIndex = new TitlePrefixIndex(Arrays.asList(titles), showIds);
+        this.textIndex = text.build();
+    }
+
+    /**
+     * Starts building a catalog.
+     *
+     * @param expectedSize Expected number of shows, used to presize the columns
+     * @return A new builder
+     */
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    /**
+     * Builds a catalog from already materialized shows, e.g. generated test or benchmark data.
+     *
+     * @param shows Shows in catalog order
+     * @return The indexed catalog
+     */
+    public static ShowCatalog of(List<Show> shows) {
+        Builder builder = builder(shows.size());
+        for (Show show : shows) {
+            builder.add(show.getShowId(), show.getTitle(), show.getDescription(), show.getCategories(),
+                    show.getType(), show.getNumberOfEpisodes(), show.getDuration());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the shows of a category or predefined row.
+     *
+     * @param category The category or row name
+     * @return Immutable list view of shows, empty if the category is unknown
+     */
+    public List<Show> showsForCategory(String category) {
+        int[] positions = categoryIndex.get(category);
+        return positions == null ? List.of() : new ShowList(positions, positions.length);
+    }
+
+    /**
+     * Finds a show by its id.
+     *
+     * @param id The showId to look up
+     * @return The matching show, or null if the id is not in the catalog
+     */
+    public Show find(int id) {
+        int position = idIndex.get(id);
+        return position < 0 ? null : show(position);
+    }
+
+    /**
+     * Finds the shows of several ids in one pass over the id index.
+     *
+     * @param ids The showIds to look up, in any order and possibly repeated
+     * @return The shows in the order of {@code ids}, with null for ids not in the catalog
+     */
+    public List<Show> findAll(List<Integer> ids) {
+        List<Show> shows = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            int position = id == null ? -1 : idIndex.get(id);
+            shows.add(position < 0 ? null : show(position));
+        }
+        return shows;
+    }
+
+    /**
+     * Finds shows whose normalized title starts with the normalized prefix.
+     * <p>
+     * Results are ranked by normalized title, then by showId. Only the requested
+     * page is materialized, independently of how many shows match.
+     *
+     * @param prefix      Title prefix as typed by the user; null or empty matches every titled show
+     * @param afterShowId showId of the last show of the previous page, or null for the first page
+     * @param limit       Maximum number of shows to return
+     * @return The requested page of matching shows
+     */
+    public List<Show> searchByTitle(String prefix, Integer afterShowId, int limit) {
+        String key = prefix == null ? "" : TitlePrefixIndex.normalize(prefix);
+        int start = titleIndex.lowerBound(key);
+        int end = titleIndex.upperBound(key);
+
+        // Resume right after the cursor show when it is part of the matching range
+        if (afterShowId != null) {
+            int position = idIndex.get(afterShowId);
+            if (position >= 0) {
+                start = Math.max(start, titleIndex.rankOf(position) + 1);
+            }
+        }
+
+        int count = Math.max(0, Math.min(end - start, limit));
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = titleIndex.positionAt(start + i);
+        }
+        return new ShowList(positions, count);
+    }
+
+    /**
+     * Counts the shows whose normalized title starts with the normalized prefix.
+     *
+     * @param prefix Title prefix; null or empty counts every titled show
+     * @return Number of matching shows
+     */
+    public int countByTitle(String prefix) {
+        String key = prefix == null ? "" : TitlePrefixIndex.normalize(prefix);
+        return titleIndex.upperBound(key) - titleIndex.lowerBound(key);
+    }
+
+    /**
+     * Ranks shows against a free text query using BM25 over title, description
+     * and categories, title matches weighing the most.
+     *
+     * @param query Free text query
+     * @param limit Maximum number of shows to return
+     * @return The best matching shows, most relevant first
+     */
+    public List<Show> searchText(String query, int limit) {
+        int[] positions = textIndex.search(query, limit);
+        return new ShowList(positions, positions.length);
+    }
+
+    /**
+     * Returns all shows in catalog order.
+     *
+     * @return Immutable list view of all shows
+     */
+    public List<Show> allShows() {
+        return new ShowList(null, size);
+    }
+
+    /**
+     * Returns the category names of the catalog, in order of first appearance.
+     * Predefined rows are not included.
+     *
+     * @return Immutable list of category names
+     */
+    public List<String> categories() {
+        return List.of(categoryNames);
+    }
+
+    /**
+     * Returns the number of shows in the catalog.
+     *
+     * @return Catalog size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the version of this catalog. Catalogs built later have higher versions.
+     *
+     * @return Catalog version
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Materializes the show stored at a catalog position.
+     *
+     * @param position Catalog position
+     * @return A new Show view of the stored columns
+     */
+    private Show show(int position) {
+        byte type = types[position];
+        int episodeCount = episodes[position];
+        return Show.newBuilder()
+                .showId(showIds[position])
+                .title(titles[position])
+                .description(descriptions[position])
+                .categories(categories(position))
+                .type(type == NO_TYPE ? null : SHOW_TYPES[type])
+                .numberOfEpisodes(episodeCount == NO_EPISODES ? null : episodeCount)
+                .duration(durations[position])
+                .build();
+    }
+
+    /**
+     * Resolves the interned category names of the show at a catalog position.
+     */
+    private List<String> categories(int position) {
+        int start = categoryStarts[position];
+        String[] names = new String[categoryStarts[position + 1] - start];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = categoryNames[categoryRefs[start + i]];
+        }
+        return List.of(names);
+    }
+
+    /**
+     * Read-only list of shows backed by catalog positions; each element is
+     * materialized when it is read.
+     */
+    private final class ShowList extends AbstractList<Show> implements RandomAccess {
+
+        /**
+         * Catalog positions of the elements, or null for the identity mapping
+         */
+        private final int[] positions;
+
+        /**
+         * Number of elements
+         */
+        private final int length;
+
+        private ShowList(int[] positions, int length) {
+            this.positions = positions;
+            this.length = length;
+        }
+
+        @Override
+        public Show get(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return show(positions == null ? index : positions[index]);
+        }
+
+        @Override
+        public int size() {
+            return length;
+        }
+    }
+
+    /**
+     * Accumulates the catalog columns show by show, interning category names
+     * and encoding the show type as an ordinal as they are added.
+     */
+    public static final class Builder {
+
+        private int size;
+        private int[] showIds;
+        private String[] titles;
+        private String[] descriptions;
+        private byte[] types;
+        private int[] episodes;
+        private String[] durations;
+        private int[] categoryStarts;
+        private int[] categoryRefs;
+
+        /**
+         * Interned category names in ordinal order
+         */
+        private final List<String> categoryNames = new ArrayList<>();
+
+        /**
+         * Category name to ordinal
+         */
+        private final Map<String, Integer> categoryOrdinals = new HashMap<>();
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            this.showIds = new int[capacity];
+            this.titles = new String[capacity];
+            this.descriptions = new String[capacity];
+            this.types = new byte[capacity];
+            this.episodes = new int[capacity];
+            this.durations = new String[capacity];
+            this.categoryStarts = new int[capacity + 1];
+            this.categoryRefs = new int[capacity * 3];
+        }
+
+        /**
+         * Appends a show to the catalog. Shows without an id are skipped.
+         *
+         * @param showId           Unique show id
+         * @param title            Show title
+         * @param description      Show description
+         * @param categories       Category names, may be null
+         * @param type             Show type, may be null
+         * @param numberOfEpisodes Number of episodes, may be null
+         * @param duration         Duration of a movie, may be null
+         * @return This builder
+         */
+        public Builder add(Integer showId, String title, String description, List<String> categories,
+                           ShowType type, Integer numberOfEpisodes, String duration) {
+            if (showId == null) {
+                return this;
+            }
+            if (size == showIds.length) {
+                grow();
+            }
+            showIds[size] = showId;
+            titles[size] = title;
+            descriptions[size] = description;
+            types[size] = type == null ? NO_TYPE : (byte) type.ordinal();
+            episodes[size] = numberOfEpisodes == null ? NO_EPISODES : numberOfEpisodes;
+            durations[size] = duration;
+
+            int refs = categoryStarts[size];
+            if (categories != null) {
+                if (refs + categories.size() > categoryRefs.length) {
+                    categoryRefs = Arrays.copyOf(categoryRefs, Math.max(categoryRefs.length * 2, refs + categories.size()));
+                }
+                for (String category : categories) {
+                    categoryRefs[refs++] = ordinal(category);
+                }
+            }
+            categoryStarts[++size] = refs;
+            return this;
+        }
+
+        /**
+         * Freezes the accumulated columns and builds the indexes.
+         *
+         * @return The immutable catalog
+         */
+        public ShowCatalog build() {
+            return new ShowCatalog(this);
+        }
+
+        /**
+         * Returns the ordinal of a category name, registering it on first sight.
+         */
+        private int ordinal(String category) {
+            Integer ordinal = categoryOrdinals.get(category);
+            if (ordinal == null) {
+                ordinal = categoryNames.size();
+                categoryNames.add(category);
+                categoryOrdinals.put(category, ordinal);
+            }
+            return ordinal;
+        }
+
+        private void grow() {
+            int capacity = showIds.length * 2;
+            showIds = Arrays.copyOf(showIds, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            types = Arrays.copyOf(types, capacity);
+            episodes = Arrays.copyOf(episodes, capacity);
+            durations = Arrays.copyOf(durations, capacity);
+            categoryStarts = Arrays.copyOf(categoryStarts, capacity + 1);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.netflix.spring_lolomo_service.repository;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.netflix.spring_lolomo_service.codegen.types.ShowType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming loader turning a shows JSON array into a {@link ShowCatalog}.
+ * <p>
+ * The document is read token by token with Jackson's streaming parser and
+ * each show is appended straight to the catalog's columns, so no intermediate
+ * object graph of the whole catalog is ever built. Memory used while loading
+ * is the final columnar catalog plus the fields of a single show.
+ * <p>
+ * The JSON {@code length} field is mapped onto the schema's {@code duration};
+ * unknown fields are skipped. Any other deviation from an array of show
+ * objects, such as a non-object entry, a show without a {@code showId}, an
+ * unknown {@code type} or categories that are not an array of strings, fails
+ * the load rather than publishing a truncated catalog.
+ */
+public final class ShowCatalogLoader {
+
+    private ShowCatalogLoader() {
+    }
+
+    /**
+     * Reads a JSON array of shows and builds the indexed catalog.
+     *
+     * @param inputStream  Stream containing the JSON array, closed once parsed
+     * @param jsonFactory  Factory used to create the streaming parser
+     * @param expectedSize Expected number of shows, used to presize the catalog columns
+     * @return The indexed catalog
+     * @throws IOException if the stream cannot be read or is not a JSON array of shows
+     */
+    public static ShowCatalog load(InputStream inputStream, JsonFactory jsonFactory, int expectedSize) throws IOException {
+        ShowCatalog.Builder builder = ShowCatalog.builder(expectedSize);
+
+        try (JsonParser parser = jsonFactory.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array of shows");
+            }
+
+            // Reused for every show; the builder keeps interned ordinals, not the list
+            List<String> categories = new ArrayList<>();
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Integer showId = null;
+                Integer numberOfEpisodes = null;
+                String title = null;
+                String description = null;
+                String duration = null;
+                ShowType type = null;
+                categories.clear();
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (value == JsonToken.VALUE_NULL) {
+                        continue;
+                    }
+                    switch (field) {
+                        case "showId" -> showId = parser.getIntValue();
+                        case "title" -> title = parser.getText();
+                        case "description" -> description = parser.getText();
+                        case "type" -> type = showType(parser);
+                        case "numberOfEpisodes" -> numberOfEpisodes = parser.getIntValue();
+                        case "length", "duration" -> duration = parser.getText();
+                        case "categories" -> {
+                            if (value != JsonToken.START_ARRAY) {
+                                throw new JsonParseException(parser, "Expected an array of categories, got " + value);
+                            }
+                            for (JsonToken category = parser.nextToken(); category != JsonToken.END_ARRAY;
+                                 category = parser.nextToken()) {
+                                if (category != JsonToken.VALUE_STRING) {
+                                    throw new JsonParseException(parser, "Expected a category name, got " + category);
+                                }
+                                categories.add(parser.getText());
+                            }
+                        }
+                        default -> parser.skipChildren();
+                    }
+                }
+                if (parser.currentToken() != JsonToken.END_OBJECT) {
+                    throw new JsonParseException(parser, "Expected a field name, got " + parser.currentToken());
+                }
+                if (showId == null) {
+                    throw new JsonParseException(parser, "Show without a showId");
+                }
+
+                builder.add(showId, title, description, categories, type, numberOfEpisodes, duration);
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new JsonParseException(parser, "Expected a show object, got " + parser.currentToken());
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static ShowType showType(JsonParser parser) throws IOException {
+        String name = parser.getText();
+        try {
+            return ShowType.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(parser, "Unknown show type " + name, e);
+        }
+    }
+}
@@ -1,14 +1,19 @@
 package com.netflix.spring_lolomo_service.repository;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.netflix.spring_lolomo_service.codegen.types.Show;
 import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Repository component for managing show data access and categorization.
@@ -17,78 +22,161 @@ import java.util.List;
  * and provides various methods to query and filter shows by category, ID,
  * or retrieve all shows. It serves as the primary data access layer for
  * the Lolomo service, abstracting the underlying data storage mechanism.
+ * <p>
+ * The catalog is an immutable {@link ShowCatalog} snapshot held in a volatile
+ * field. {@link #reload()} builds a complete new snapshot, indexes included,
+ * and publishes it with a single reference write, so readers never take a
+ * lock and never observe a partially built catalog.
  */
 @Component // Spring component annotation for dependency injection
 public class ShowsRepository {
 
     /**
-     * Jackson ObjectMapper for JSON deserialization
+     * Jackson ObjectMapper whose factory creates the streaming JSON parser
      */
     private final ObjectMapper mapper;
 
     /**
-     * In-memory cache of all shows loaded from the JSON file
+     * External catalog file, or null to load the bundled shows.json
+     */
+    private final Path catalogPath;
+
+    /**
+     * Serializes reloads so concurrent triggers don't build snapshots in parallel
+     */
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    /**
+     * Current indexed snapshot of all shows, replaced atomically on reload
      */
-    private List<Show> shows;
+    private volatile ShowCatalog catalog;
 
     /**
      * Constructor injection for ObjectMapper dependency.
      *
      * @param objectMapper Jackson ObjectMapper instance for JSON processing
+     * @param catalogPath  Path of an external catalog file; empty to use the bundled shows.json
      */
-    public ShowsRepository(ObjectMapper objectMapper) {
+    public ShowsRepository(ObjectMapper objectMapper, @Value("${lolomo.catalog.path:}") String catalogPath) {
         this.mapper = objectMapper;
+        this.catalogPath = catalogPath == null || catalogPath.isBlank() ? null : Path.of(catalogPath);
     }
 
     /**
      * Initializes the repository by loading show data from JSON file.
      * <p>
      * This method is automatically called after dependency injection is complete
-     * but before the bean is put into service. It loads the shows.json file from
-     * the classpath and deserializes it into a list of Show objects for in-memory
-     * access throughout the application lifecycle.
+     * but before the bean is put into service. It loads the catalog file (the
+     * configured external path, or shows.json from the classpath) and streams it
+     * into a column-oriented, indexed {@link ShowCatalog} for in-memory access.
+     * Show objects are only created when a request reads them.
      *
      * @throws RuntimeException if the JSON file cannot be read or parsed
      */
     @PostConstruct // Executed after dependency injection, before bean is ready for use
     public void loadShows() {
-        // Load shows.json from the classpath resources
-        var showJson = new ClassPathResource("shows.json");
-
-        try (var inputStream = showJson.getInputStream()) {
-            // Deserialize JSON array to List<Show> using TypeReference for generic type safety
-            shows = mapper.readValue(inputStream, new TypeReference<>() {
-            });
+        try {
+            reload();
         } catch (IOException e) {
             // Wrap IOException in RuntimeException for Spring's exception handling
             throw new RuntimeException("Failed to load shows from JSON file", e);
         }
     }
 
+    /**
+     * Loads the catalog file again and atomically publishes the new snapshot.
+     * <p>
+     * The new catalog and all of its indexes are built on the calling thread
+     * while requests keep reading the current snapshot. If loading fails, the
+     * current snapshot stays in place.
+     *
+     * @return The newly published snapshot
+     * @throws IOException if the catalog file cannot be read or parsed
+     */
+    public ShowCatalog reload() throws IOException {
+        reloadLock.lock();
+        try {
+            ShowCatalog current = catalog;
+            Resource source = catalogPath == null
+                    ? new ClassPathResource("shows.json")
+                    : new FileSystemResource(catalogPath);
+
+            try (var inputStream = source.getInputStream()) {
+                // Stream the JSON array token by token into the catalog columns, then
+                // build the id, category, row and search indexes once, off the request path
+                ShowCatalog loaded = ShowCatalogLoader.load(inputStream, mapper.getFactory(),
+                        current == null ? 0 : current.size());
+
+                // Single volatile write: readers see either the old or the new snapshot
+                catalog = loaded;
+                return loaded;
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current catalog snapshot. Callers that need several consistent
+     * reads should keep and reuse the returned snapshot.
+     *
+     * @return The current immutable catalog
+     */
+    public ShowCatalog snapshot() {
+        return catalog;
+    }
+
+    /**
+     * Returns the external catalog file watched for changes.
+     *
+     * @return The configured catalog path, or null when the bundled catalog is used
+     */
+    public Path catalogPath() {
+        return catalogPath;
+    }
+
     /**
      * Retrieves shows filtered by category with special handling for predefined categories.
      * <p>
      * This method provides different logic for special categories:
      * - "Top 10": Returns the first 10 shows from the list
      * - "Continue Watching": Returns a specific subset of shows (indices 9, 7, 0)
-     * - Other categories: Filters shows that contain the category in their categories list
+     * - Other categories: Returns the shows that contain the category in their categories list
+     * <p>
+     * All lists are precomputed by the catalog, so this is a single index lookup.
      *
      * @param category The category name to filter by
-     * @return List of shows matching the specified category
+     * @return Immutable list of shows matching the specified category
      */
     public List<Show> showsForCategory(String category) {
-        return switch (category) {
-            // Return first 10 shows for "Top 10" category
-            case "Top 10" -> shows.stream().limit(10).toList();
-
-            // Return specific shows for "Continue Watching" to simulate user progress
-            case "Continue Watching" -> List.of(shows.get(9), shows.get(7), shows.get(0));
-
-            // For all other categories, filter by shows that contain the category
-            default -> shows.stream()
-                    .filter(show -> show.getCategories().contains(category))
-                    .toList();
-        };
+        return catalog.showsForCategory(category);
+    }
+
+    /**
+     * Searches shows by title prefix using the catalog's normalized title index.
+     * <p>
+     * Matching ignores case and accents. Results are ranked by normalized title
+     * and showId, so consecutive pages are stable.
+     *
+     * @param prefix      Title prefix to match
+     * @param afterShowId showId of the last show of the previous page, or null for the first page
+     * @param limit       Maximum number of shows to return
+     * @return One page of matching shows
+     */
+    public List<Show> searchByTitle(String prefix, Integer afterShowId, int limit) {
+        return catalog.searchByTitle(prefix, afterShowId, limit);
+    }
+
+    /**
+     * Ranks shows by relevance to a free text query across title, description
+     * and categories.
+     *
+     * @param query Free text query
+     * @param limit Maximum number of shows to return
+     * @return The most relevant shows, best match first
+     */
+    public List<Show> searchText(String query, int limit) {
+        return catalog.searchText(query, limit);
     }
 
     /**
@@ -97,13 +185,14 @@ public class ShowsRepository {
      * @return Complete list of all loaded shows
      */
     public List<Show> allShows() {
-        return shows;
+        return catalog.allShows();
     }
 
     /**
      * Finds a show by its unique ID.
      * <p>
-     * Searches through all shows and returns the first match based on show ID.
+     * Resolves the show through the catalog's primitive id index and returns the
+     * first match based on show ID.
      * Note: This method assumes the ID exists and will throw NoSuchElementException
      * if no matching show is found.
      *
@@ -112,10 +201,10 @@ public class ShowsRepository {
      * @throws java.util.NoSuchElementException if no show with the given ID exists
      */
     public Show byId(Integer id) {
-        return shows.stream()
-                .filter(show -> show.getShowId().equals(id))
-                .findAny()
-                .get();
-        // Will throw NoSuchElementException if not found
+        Show show = catalog.find(id);
+        if (show == null) {
+            throw new NoSuchElementException("No show with id " + id);
+        }
+        return show;
     }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.netflix.spring_lolomo_service.repository;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix index over normalized show titles used for typeahead search.
+ * <p>
+ * Titles are normalized once when the index is built (accents stripped, case
+ * folded) and kept in a sorted array, so a prefix query becomes two binary
+ * searches delimiting the matching range. Matches are ranked by normalized
+ * title and then by showId, which gives a stable order for pagination.
+ */
+final class TitlePrefixIndex {
+
+    /**
+     * Combining marks left behind by canonical decomposition (e.g. the accent of "é")
+     */
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Normalized titles in rank order
+     */
+    private final String[] keys;
+
+    /**
+     * Catalog position of the show at each rank
+     */
+    private final int[] positions;
+
+    /**
+     * Rank of the show at each catalog position, the inverse of {@link #positions}
+     */
+    private final int[] ranks;
+
+    /**
+     * Builds the index from titles in catalog order.
+     *
+     * @param titles  Title of the show at each catalog position (null titles never match)
+     * @param showIds showId of the show at each catalog position, used as tie-breaker
+     */
+    TitlePrefixIndex(List<String> titles, int[] showIds) {
+        int size = titles.size();
+        String[] normalized = new String[size];
+        Integer[] order = new Integer[size];
+        for (int position = 0; position < size; position++) {
+            String title = titles.get(position);
+            normalized[position] = title == null ? null : normalize(title);
+            order[position] = position;
+        }
+
+        // Shows without a title sort last and are excluded from the searchable range
+        Arrays.sort(order, Comparator.<Integer, String>comparing(p -> normalized[p],
+                        Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparingInt(p -> showIds[p]));
+
+        this.keys = new String[size];
+        this.positions = new int[size];
+        this.ranks = new int[size];
+        for (int rank = 0; rank < size; rank++) {
+            int position = order[rank];
+            keys[rank] = normalized[position];
+            positions[rank] = position;
+            ranks[position] = rank;
+        }
+    }
+
+    /**
+     * Normalizes text for matching: Unicode canonical decomposition with combining
+     * marks removed, followed by full case folding ("Amélie" and "AMELIE" both
+     * become "amelie", "Straße" becomes "strasse").
+     *
+     * @param text The text to normalize
+     * @return The normalized form
+     */
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+        return stripped.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the first rank whose key is greater than or equal to the prefix.
+     *
+     * @param prefix Normalized prefix
+     * @return Inclusive start of the matching range
+     */
+    int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] != null && keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the first rank after the last key starting with the prefix.
+     *
+     * @param prefix Normalized prefix
+     * @return Exclusive end of the matching range
+     */
+    int upperBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] != null && (keys[mid].compareTo(prefix) < 0 || keys[mid].startsWith(prefix))) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the catalog position of the show at a rank.
+     *
+     * @param rank Rank within the index
+     * @return Catalog position
+     */
+    int positionAt(int rank) {
+        return positions[rank];
+    }
+
+    /**
+     * Returns the rank of the show at a catalog position.
+     *
+     * @param position Catalog position
+     * @return Rank within the index
+     */
+    int rankOf(int position) {
+        return ranks[position];
+    }
+}
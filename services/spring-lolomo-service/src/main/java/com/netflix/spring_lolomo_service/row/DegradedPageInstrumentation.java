@@ -0,0 +1,56 @@
+package com.netflix.spring_lolomo_service.row;
+
+import graphql.ExecutionResult;
+import graphql.GraphQLContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.incremental.IncrementalExecutionResult;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reports degraded lolomo pages in the "degraded" response extension.
+ * <p>
+ * A row served from a fallback is not an error, so the response would
+ * otherwise look complete. Resolvers call {@link #markDegraded(GraphQLContext)}
+ * when the {@link LolomoAssembler} returns a degraded page; the extension lets
+ * clients and the response cache tell such a page from a complete one.
+ */
+@Component // Registered with the GraphQL engine as an Instrumentation bean
+public class DegradedPageInstrumentation extends SimplePerformantInstrumentation {
+
+    /**
+     * Response extension set on degraded results
+     */
+    public static final String EXTENSION = "degraded";
+
+    /**
+     * GraphQL context key of the degraded flag
+     */
+    private static final String DEGRADED = DegradedPageInstrumentation.class.getName() + ".degraded";
+
+    /**
+     * Marks the result of the current request as degraded.
+     *
+     * @param context GraphQL context of the request
+     */
+    public static void markDegraded(GraphQLContext context) {
+        context.put(DEGRADED, true);
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+                                                                        InstrumentationExecutionParameters parameters,
+                                                                        InstrumentationState state) {
+        GraphQLContext context = parameters.getGraphQLContext();
+        if (context == null || !context.getBoolean(DEGRADED, false)
+                || executionResult instanceof IncrementalExecutionResult) {
+            // Transforming an incremental result would drop its deferred parts
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        return CompletableFuture.completedFuture(executionResult.transform(builder ->
+                builder.addExtension(EXTENSION, true)));
+    }
+}
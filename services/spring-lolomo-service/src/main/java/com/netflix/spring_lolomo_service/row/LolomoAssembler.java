@@ -0,0 +1,218 @@
+package com.netflix.spring_lolomo_service.row;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.netflix.spring_lolomo_service.codegen.types.Show;
+import com.netflix.spring_lolomo_service.codegen.types.ShowCategory;
+import com.netflix.spring_lolomo_service.repository.ShowCatalog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Assembles lolomo pages, computing all rows of a page concurrently.
+ * <p>
+ * Every row planned by {@link LolomoPlanner} is forked on its own virtual
+ * thread as soon as the page starts. Rows are then collected in plan order,
+ * each waiting only until its own deadline, measured from the start of the
+ * page. Since all rows run at once, a page takes as long as its slowest row
+ * within its deadline, not the sum of its rows.
+ * <p>
+ * A row that fails or misses its deadline is replaced by the last version
+ * computed for the same user, or by the row's generic fallback; an empty
+ * row is left out. Late rows are cancelled, and no row task outlives the
+ * page that forked it. Successful rows are kept as last good versions for
+ * {@code lolomo.rows.last-good-ttl}. A page with any such replacement is
+ * returned as degraded, so it is not cached as if it were complete.
+ * <p>
+ * This is the fork, join-with-deadline and cancel-on-exit shape of
+ * structured concurrency, built on a virtual-thread executor because
+ * StructuredTaskScope is still a preview API in Java 21.
+ * <p>
+ * Metrics:
+ * - lolomo.page: time to assemble a page
+ * - lolomo.row: time until a row was served, tagged with the row and the
+ *   outcome (success, timeout, error)
+ * - cache statistics of the last good rows under the cache name "lolomo-rows"
+ */
+@Component // Spring component annotation for dependency injection
+public class LolomoAssembler {
+
+    /**
+     * Logger instance for failed rows
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LolomoAssembler.class);
+
+    /**
+     * Plans the rows of a page
+     */
+    private final LolomoPlanner planner;
+
+    /**
+     * Registry receiving the page and row timers
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Time to assemble a page
+     */
+    private final Timer pageTimer;
+
+    /**
+     * Row timer per row name and outcome, so pages don't rebuild their meters
+     */
+    private final Map<List<String>, Timer> rowTimers = new ConcurrentHashMap<>();
+
+    /**
+     * Last good version of every row per user
+     */
+    private final Cache<RowKey, List<Show>> lastGood;
+
+    /**
+     * One virtual thread per row
+     */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Constructor injection for the planner, meter registry and fallback settings.
+     *
+     * @param planner       Planner deciding the rows of a page
+     * @param meterRegistry Registry receiving the page and row timers
+     * @param lastGoodSize  Maximum number of last good rows kept
+     * @param lastGoodTtl   Time a last good row may be served after it was computed
+     */
+    public LolomoAssembler(LolomoPlanner planner,
+                           MeterRegistry meterRegistry,
+                           @Value("${lolomo.rows.last-good-size:100000}") long lastGoodSize,
+                           @Value("${lolomo.rows.last-good-ttl:10m}") Duration lastGoodTtl) {
+        this.planner = planner;
+        this.meterRegistry = meterRegistry;
+        this.pageTimer = Timer.builder("lolomo.page")
+                .description("Time to assemble a lolomo page")
+                .register(meterRegistry);
+        this.lastGood = Caffeine.newBuilder()
+                .maximumSize(lastGoodSize)
+                .expireAfterWrite(lastGoodTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, lastGood, "lolomo-rows");
+    }
+
+    /**
+     * Assembles the page of a user.
+     *
+     * @param userId  User the page is built for, or null for an anonymous page
+     * @param catalog Catalog snapshot of the request
+     * @return Non-empty rows in plan order, degraded if any row was served from a fallback
+     */
+    public LolomoPage assemble(Integer userId, ShowCatalog catalog) {
+        Timer.Sample page = Timer.start(meterRegistry);
+        List<Row> rows = planner.rows(catalog);
+        long start = System.nanoTime();
+
+        // Fork every row before waiting for any of them
+        List<Future<List<Show>>> forks = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            forks.add(executor.submit(() -> row.source().shows(userId, catalog)));
+        }
+
+        List<ShowCategory> categories = new ArrayList<>(rows.size());
+        boolean degraded = false;
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                Row row = rows.get(i);
+                RowKey key = new RowKey(row.name(), userId);
+                List<Show> shows = join(row, forks.get(i), start);
+                if (shows != null) {
+                    lastGood.put(key, shows);
+                } else {
+                    degraded = true;
+                    List<Show> previous = lastGood.getIfPresent(key);
+                    shows = previous != null ? previous : fallback(row, userId, catalog);
+                }
+                if (!shows.isEmpty()) {
+                    categories.add(ShowCategory.newBuilder().name(row.name()).shows(shows).build());
+                }
+            }
+        } finally {
+            // Nothing forked by this page keeps running after it
+            forks.forEach(fork -> fork.cancel(true));
+            page.stop(pageTimer);
+        }
+        return new LolomoPage(categories, degraded);
+    }
+
+    /**
+     * Waits for a row until its deadline.
+     *
+     * @return The computed shows, or null if the row failed or is late and was cancelled
+     */
+    private List<Show> join(Row row, Future<List<Show>> fork, long start) {
+        String outcome = "success";
+        try {
+            long remaining = start + row.timeout().toNanos() - System.nanoTime();
+            return fork.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            outcome = "timeout";
+        } catch (ExecutionException e) {
+            outcome = "error";
+            LOGGER.warn("Row {} failed, serving its fallback", row.name(), e.getCause());
+        } catch (InterruptedException e) {
+            outcome = "error";
+            Thread.currentThread().interrupt();
+        } finally {
+            rowTimer(row.name(), outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        fork.cancel(true);
+        return null;
+    }
+
+    private Timer rowTimer(String row, String outcome) {
+        return rowTimers.computeIfAbsent(List.of(row, outcome), tags -> Timer.builder("lolomo.row")
+                .description("Time until a lolomo row was served")
+                .tag("row", row)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private static List<Show> fallback(Row row, Integer userId, ShowCatalog catalog) {
+        try {
+            return row.fallback().shows(userId, catalog);
+        } catch (Exception e) {
+            LOGGER.warn("Fallback of row {} failed, leaving the row out", row.name(), e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Stops the row threads still running.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Identifies the last good version of a row.
+     */
+    private record RowKey(String row, Integer userId) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.netflix.spring_lolomo_service.row;
+
+import com.netflix.spring_lolomo_service.codegen.types.ShowCategory;
+
+import java.util.List;
+
+/**
+ * Immutable data record representing an assembled lolomo page.
+ *
+ * @param rows     Non-empty rows in plan order
+ * @param degraded Whether any row was served from its last good or generic fallback
+ */
+public record LolomoPage(List<ShowCategory> rows, boolean degraded) {
+}
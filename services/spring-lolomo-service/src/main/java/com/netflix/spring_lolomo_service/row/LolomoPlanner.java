@@ -0,0 +1,118 @@
+package com.netflix.spring_lolomo_service.row;
+
+import com.netflix.spring_lolomo_service.codegen.types.Show;
+import com.netflix.spring_lolomo_service.progress.ViewingProgress;
+import com.netflix.spring_lolomo_service.progress.ViewingProgressStore;
+import com.netflix.spring_lolomo_service.repository.ShowCatalog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decides which rows a lolomo page has and in which order.
+ * <p>
+ * A page starts with "Top 10" and "Continue Watching", followed by one row per
+ * catalog category until {@code lolomo.rows.max-rows} rows are planned. Rows
+ * hold at most {@code lolomo.rows.row-size} shows.
+ * <p>
+ * "Continue Watching" holds the user's most recently watched shows from the
+ * {@link ViewingProgressStore}; anonymous pages don't have it.
+ */
+@Component // Spring component annotation for dependency injection
+public class LolomoPlanner {
+
+    /**
+     * Source of the "Continue Watching" row
+     */
+    private final ViewingProgressStore viewingProgressStore;
+
+    /**
+     * Maximum number of rows of a page
+     */
+    private final int maxRows;
+
+    /**
+     * Maximum number of shows of a row
+     */
+    private final int rowSize;
+
+    /**
+     * Time a row may take before its fallback is served
+     */
+    private final Duration rowTimeout;
+
+    /**
+     * Constructor injection for the progress store and page layout settings.
+     *
+     * @param viewingProgressStore Store of the users' viewing progress
+     * @param maxRows              Maximum number of rows of a page
+     * @param rowSize              Maximum number of shows of a row
+     * @param rowTimeout           Deadline of every row, measured from the start of the page
+     */
+    public LolomoPlanner(ViewingProgressStore viewingProgressStore,
+                         @Value("${lolomo.rows.max-rows:40}") int maxRows,
+                         @Value("${lolomo.rows.row-size:20}") int rowSize,
+                         @Value("${lolomo.rows.timeout:200ms}") Duration rowTimeout) {
+        this.viewingProgressStore = viewingProgressStore;
+        this.maxRows = maxRows;
+        this.rowSize = rowSize;
+        this.rowTimeout = rowTimeout;
+    }
+
+    /**
+     * Plans the rows of a page.
+     *
+     * @param catalog Catalog snapshot of the request
+     * @return Rows in page order
+     */
+    public List<Row> rows(ShowCatalog catalog) {
+        List<Row> rows = new ArrayList<>();
+        rows.add(new Row(ShowCatalog.TOP_10,
+                (userId, snapshot) -> snapshot.showsForCategory(ShowCatalog.TOP_10),
+                (userId, snapshot) -> snapshot.showsForCategory(ShowCatalog.TOP_10),
+                rowTimeout));
+        // Personalized: there is no generic version, a late row is left out unless a last good one exists
+        rows.add(new Row(ShowCatalog.CONTINUE_WATCHING,
+                this::continueWatching,
+                (userId, snapshot) -> List.of(),
+                rowTimeout));
+
+        for (String category : catalog.categories()) {
+            if (rows.size() >= maxRows) {
+                break;
+            }
+            rows.add(new Row(category,
+                    (userId, snapshot) -> genre(snapshot, category),
+                    (userId, snapshot) -> genre(snapshot, category),
+                    rowTimeout));
+        }
+        return rows.size() > maxRows ? List.copyOf(rows.subList(0, Math.max(0, maxRows))) : rows;
+    }
+
+    /**
+     * Resolves the user's most recent shows against the catalog, O(row size).
+     */
+    private List<Show> continueWatching(Integer userId, ShowCatalog catalog) {
+        if (userId == null) {
+            return List.of();
+        }
+        List<ViewingProgress> recent = viewingProgressStore.recent(userId, rowSize);
+        List<Show> shows = new ArrayList<>(recent.size());
+        for (ViewingProgress progress : recent) {
+            // Shows removed from the catalog since are skipped
+            Show show = catalog.find(progress.showId());
+            if (show != null) {
+                shows.add(show);
+            }
+        }
+        return List.copyOf(shows);
+    }
+
+    private List<Show> genre(ShowCatalog catalog, String category) {
+        List<Show> shows = catalog.showsForCategory(category);
+        return shows.size() > rowSize ? shows.subList(0, rowSize) : shows;
+    }
+}
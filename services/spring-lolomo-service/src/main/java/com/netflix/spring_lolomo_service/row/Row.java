@@ -0,0 +1,33 @@
+package com.netflix.spring_lolomo_service.row;
+
+import com.netflix.spring_lolomo_service.codegen.types.Show;
+import com.netflix.spring_lolomo_service.repository.ShowCatalog;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * One row of a lolomo page.
+ *
+ * @param name     Row title, also the key of its last good version
+ * @param source   Computes the row for a user; may block, it runs on its own virtual thread
+ * @param fallback Generic version of the row served when no last good version exists
+ * @param timeout  Time the row may take before its fallback is served
+ */
+public record Row(String name, Source source, Source fallback, Duration timeout) {
+
+    /**
+     * Computes the shows of a row.
+     */
+    @FunctionalInterface
+    public interface Source {
+
+        /**
+         * @param userId  User the page is built for, or null for an anonymous page
+         * @param catalog Catalog snapshot of the request
+         * @return Immutable shows of the row, empty to leave the row out
+         * @throws Exception if the row cannot be computed
+         */
+        List<Show> shows(Integer userId, ShowCatalog catalog) throws Exception;
+    }
+}
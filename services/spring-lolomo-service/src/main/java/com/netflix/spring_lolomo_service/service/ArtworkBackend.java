@@ -0,0 +1,23 @@
+package com.netflix.spring_lolomo_service.service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Source of artwork URLs, queried by {@link ArtworkDispatcher} one batch at a time.
+ * <p>
+ * Implementations may complete asynchronously and may fail individual titles
+ * through {@link ArtworkResult#failure(Throwable)}. Titles missing from the
+ * returned map are treated as failed.
+ */
+public interface ArtworkBackend {
+
+    /**
+     * Resolves the artwork of a batch of show titles.
+     *
+     * @param titles Titles of the batch, at most the configured maximum batch size
+     * @return Per-title results
+     */
+    CompletionStage<Map<String, ArtworkResult>> fetch(Set<String> titles);
+}
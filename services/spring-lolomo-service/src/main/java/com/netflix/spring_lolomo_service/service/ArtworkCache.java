@@ -0,0 +1,69 @@
+package com.netflix.spring_lolomo_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Process-wide cache of generated artwork URLs, shared by every DataLoader batch.
+ * <p>
+ * The DataLoader cache only lives for one GraphQL request; this cache keeps
+ * URLs across requests so repeated lolomo renders skip artwork generation.
+ * It is backed by Caffeine, whose W-TinyLFU policy admits and evicts entries
+ * based on access frequency, bounded by size and expiring entries after a TTL.
+ * Hit, miss and eviction statistics are published to Micrometer under the
+ * cache name "artwork".
+ */
+@Component // Spring component annotation for dependency injection
+public class ArtworkCache {
+
+    /**
+     * Show title to artwork URL
+     */
+    private final Cache<String, String> cache;
+
+    /**
+     * Creates the cache and binds its statistics to the meter registry.
+     *
+     * @param maximumSize   Maximum number of cached URLs
+     * @param timeToLive    Time after which a cached URL is generated again
+     * @param meterRegistry Registry receiving the cache statistics
+     */
+    public ArtworkCache(@Value("${lolomo.artwork.cache.maximum-size:100000}") long maximumSize,
+                        @Value("${lolomo.artwork.cache.ttl:1h}") Duration timeToLive,
+                        MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "artwork");
+    }
+
+    /**
+     * Returns the cached URLs of the requested titles.
+     *
+     * @param titles Titles to look up
+     * @return Title to artwork URL for the titles that are cached
+     */
+    public Map<String, String> getAllPresent(Set<String> titles) {
+        return cache.getAllPresent(titles);
+    }
+
+    /**
+     * Caches the URL of a title.
+     *
+     * @param title Show title
+     * @param url   Artwork URL
+     */
+    public void put(String title, String url) {
+        cache.put(title, url);
+    }
+}
@@ -0,0 +1,159 @@
+package com.netflix.spring_lolomo_service.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Dispatches artwork lookups to the {@link ArtworkBackend} off the resolver thread.
+ * <p>
+ * A DataLoader batch is split into backend batches of at most
+ * {@code lolomo.artwork.max-batch-size} titles, which are sent in parallel on
+ * virtual threads. At most {@code lolomo.artwork.max-in-flight} backend batches
+ * run at once across the whole service; further batches wait for a permit.
+ * Every backend batch gets {@code lolomo.artwork.batch-timeout} to complete,
+ * after which its titles fail without affecting the other batches.
+ */
+@Component // Spring component annotation for dependency injection
+public class ArtworkDispatcher {
+
+    /**
+     * Backend resolving the artwork
+     */
+    private final ArtworkBackend artworkBackend;
+
+    /**
+     * Maximum number of titles sent to the backend in one call
+     */
+    private final int maxBatchSize;
+
+    /**
+     * Time a backend batch may take once it holds a permit
+     */
+    private final Duration batchTimeout;
+
+    /**
+     * Bounds the number of backend batches in flight
+     */
+    private final Semaphore inFlight;
+
+    /**
+     * One virtual thread per backend batch
+     */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Constructor injection for the backend and dispatch settings.
+     *
+     * @param artworkBackend Backend resolving the artwork
+     * @param maxBatchSize   Maximum number of titles per backend call
+     * @param batchTimeout   Timeout of a single backend call
+     * @param maxInFlight    Maximum number of concurrent backend calls
+     */
+    public ArtworkDispatcher(ArtworkBackend artworkBackend,
+                             @Value("${lolomo.artwork.max-batch-size:50}") int maxBatchSize,
+                             @Value("${lolomo.artwork.batch-timeout:500ms}") Duration batchTimeout,
+                             @Value("${lolomo.artwork.max-in-flight:16}") int maxInFlight) {
+        this.artworkBackend = artworkBackend;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.batchTimeout = batchTimeout;
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+    }
+
+    /**
+     * Resolves the artwork of all titles, splitting them into parallel backend batches.
+     *
+     * @param titles Titles to resolve
+     * @return Future completing with a result for every title once all batches are done
+     */
+    public CompletableFuture<Map<String, ArtworkResult>> fetch(Set<String> titles) {
+        List<CompletableFuture<Map<String, ArtworkResult>>> batches = new ArrayList<>();
+        Set<String> batch = new LinkedHashSet<>();
+        for (String title : titles) {
+            batch.add(title);
+            if (batch.size() == maxBatchSize) {
+                batches.add(dispatch(batch));
+                batch = new LinkedHashSet<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(dispatch(batch));
+        }
+
+        return CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).thenApply(done -> {
+            Map<String, ArtworkResult> results = new HashMap<>(titles.size());
+            batches.forEach(future -> results.putAll(future.join()));
+            return results;
+        });
+    }
+
+    /**
+     * Runs one backend batch on a virtual thread. Never completes exceptionally:
+     * backend errors and timeouts become failed results for the batch's titles.
+     */
+    private CompletableFuture<Map<String, ArtworkResult>> dispatch(Set<String> batch) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return failAll(batch, e);
+            }
+
+            CompletableFuture<Map<String, ArtworkResult>> call = null;
+            try {
+                call = artworkBackend.fetch(batch).toCompletableFuture();
+                Map<String, ArtworkResult> results = new HashMap<>(call.get(batchTimeout.toMillis(), TimeUnit.MILLISECONDS));
+
+                // Titles the backend left out count as failed, not as null artwork
+                for (String title : batch) {
+                    results.computeIfAbsent(title, t -> ArtworkResult.failure(
+                            new IllegalStateException("No artwork returned for " + t)));
+                }
+                return results;
+            } catch (TimeoutException e) {
+                call.cancel(true);
+                return failAll(batch, new TimeoutException("Artwork batch timed out after " + batchTimeout));
+            } catch (ExecutionException e) {
+                return failAll(batch, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return failAll(batch, e);
+            } catch (RuntimeException e) {
+                return failAll(batch, e);
+            } finally {
+                inFlight.release();
+            }
+        }, executor);
+    }
+
+    private static Map<String, ArtworkResult> failAll(Set<String> batch, Throwable error) {
+        Map<String, ArtworkResult> results = new HashMap<>(batch.size());
+        ArtworkResult failure = ArtworkResult.failure(error);
+        batch.forEach(title -> results.put(title, failure));
+        return results;
+    }
+
+    /**
+     * Stops accepting batches and interrupts the running ones.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
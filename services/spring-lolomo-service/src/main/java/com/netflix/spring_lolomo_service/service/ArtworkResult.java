@@ -0,0 +1,42 @@
+package com.netflix.spring_lolomo_service.service;
+
+/**
+ * Outcome of resolving the artwork of a single show title.
+ * <p>
+ * Artwork batches can partially fail: each key carries either its URL or the
+ * error that prevented resolving it, so one bad title doesn't fail its batch.
+ *
+ * @param url   Artwork URL, null on failure
+ * @param error Failure cause, null on success
+ */
+public record ArtworkResult(String url, Throwable error) {
+
+    /**
+     * Creates a successful result.
+     *
+     * @param url The artwork URL
+     * @return A result carrying the URL
+     */
+    public static ArtworkResult success(String url) {
+        return new ArtworkResult(url, null);
+    }
+
+    /**
+     * Creates a failed result.
+     *
+     * @param error The failure cause
+     * @return A result carrying the error
+     */
+    public static ArtworkResult failure(Throwable error) {
+        return new ArtworkResult(null, error);
+    }
+
+    /**
+     * Tells whether the artwork was resolved.
+     *
+     * @return true if the result carries a URL
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
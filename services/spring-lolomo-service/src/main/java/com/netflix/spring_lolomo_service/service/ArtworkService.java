@@ -2,12 +2,16 @@ package com.netflix.spring_lolomo_service.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.Set;
-import java.util.UUID;
 
 /**
  * Service responsible for generating artwork URLs for shows.
@@ -16,6 +20,10 @@ import java.util.UUID;
  * capabilities. In a real-world scenario, this would likely interface with
  * an external artwork storage service or CDN, but for demonstration purposes,
  * it generates mock artwork URLs with a consistent naming pattern.
+ * <p>
+ * URLs are content-addressed: the same title and artwork version always yield
+ * the same URL, so they can be cached across requests and by the CDN. Bumping
+ * the artwork version changes every URL at once.
  */
 @Service // Spring stereotype annotation marking this as a service component
 public class ArtworkService {
@@ -25,6 +33,25 @@ public class ArtworkService {
      */
     private final Logger LOGGER = LoggerFactory.getLogger(ArtworkService.class);
 
+    /**
+     * Number of hex characters of the content hash kept in the URL
+     */
+    private static final int HASH_LENGTH = 16;
+
+    /**
+     * Version of the artwork set, part of the content hash
+     */
+    private final String artworkVersion;
+
+    /**
+     * Constructor injection for the artwork version.
+     *
+     * @param artworkVersion Version of the artwork set; changing it changes every URL
+     */
+    public ArtworkService(@Value("${lolomo.artwork.version:1}") String artworkVersion) {
+        this.artworkVersion = artworkVersion;
+    }
+
     /**
      * Generates artwork URLs for multiple show titles in a single batch operation.
      * <p>
@@ -36,8 +63,8 @@ public class ArtworkService {
      * @return Map containing title-to-artwork-URL mappings for all input titles
      */
     public Map<String, String> batchGenerator(Set<String> titles) {
-        // Log the batch generation request for monitoring and debugging
-        LOGGER.info("Generating Artworks for {}", titles);
+        // Batch sizes and timings are published as metrics; keep logging off the hot path
+        LOGGER.debug("Generating {} artworks", titles.size());
 
         // Initialize result map to store title -> artwork URL mappings
         Map<String, String> result = new HashMap<>();
@@ -54,26 +81,42 @@ public class ArtworkService {
      * Generates a mock artwork URL for a single show title.
      * <p>
      * Creates a consistent, predictable artwork URL format using:
-     * - A random UUID for uniqueness
+     * - A stable hash of the title and artwork version for cache addressing
      * - The show title converted to a URL-friendly format
      * - A .jpg file extension
      * <p>
-     * Format: {UUID}-{normalized-title}.jpg
-     * Example: "abc123-the-office.jpg" for title "The Office"
+     * Format: {hash}-{normalized-title}.jpg
+     * Example: "3f1a9c0e5b7d2a64-the-office.jpg" for title "The Office"
      *
      * @param title The show title for which to generate an artwork URL
      * @return Generated artwork URL string
      */
     public String generateArtwork(String title) {
-        // Log individual artwork generation for detailed tracing
-        LOGGER.info("Generating Artwork for title: {}", title);
-
         // Generate artwork URL with the following components:
-        // 1. Random UUID for uniqueness and cache-busting
+        // 1. Content hash of title and artwork version, stable across requests
         // 2. Hyphen separator
         // 3. Title converted to lowercase and spaces replaced with hyphens
         // 4. .jpg file extension
-        return UUID.randomUUID() + "-" + title.toLowerCase()
+        return contentHash(title) + "-" + title.toLowerCase()
                 .replaceAll(" ", "-") + ".jpg";
     }
+
+    /**
+     * Hashes the title together with the artwork version.
+     *
+     * @param title The show title
+     * @return The first {@link #HASH_LENGTH} hex characters of the SHA-256 digest
+     */
+    private String contentHash(String title) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(artworkVersion.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            byte[] hash = digest.digest(title.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, HASH_LENGTH / 2);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
 }
\ No newline at end of file
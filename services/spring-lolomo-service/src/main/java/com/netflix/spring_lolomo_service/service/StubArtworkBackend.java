@@ -0,0 +1,109 @@
+package com.netflix.spring_lolomo_service.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local artwork backend generating URLs with {@link ArtworkService}.
+ * <p>
+ * Stands in for a remote artwork service and can inject latency and errors,
+ * so timeouts, partial failures and tail latency can be exercised without one:
+ * - lolomo.artwork.stub.latency: base delay of every batch
+ * - lolomo.artwork.stub.latency-jitter: random extra delay of up to this amount
+ * - lolomo.artwork.stub.error-rate: probability (0..1) that a single title fails
+ */
+@Component // Spring component annotation for dependency injection
+public class StubArtworkBackend implements ArtworkBackend {
+
+    /**
+     * Service generating the artwork URLs
+     */
+    private final ArtworkService artworkService;
+
+    /**
+     * Base delay added to every batch
+     */
+    private final Duration latency;
+
+    /**
+     * Upper bound of the random delay added on top of the base delay
+     */
+    private final Duration latencyJitter;
+
+    /**
+     * Probability that a single title fails
+     */
+    private final double errorRate;
+
+    /**
+     * Completes the delayed batches, one virtual thread each
+     */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Constructor injection for the artwork service and fault injection settings.
+     *
+     * @param artworkService Service generating the artwork URLs
+     * @param latency        Base delay of every batch
+     * @param latencyJitter  Maximum random extra delay of a batch
+     * @param errorRate      Probability that a single title fails
+     */
+    public StubArtworkBackend(ArtworkService artworkService,
+                              @Value("${lolomo.artwork.stub.latency:0ms}") Duration latency,
+                              @Value("${lolomo.artwork.stub.latency-jitter:0ms}") Duration latencyJitter,
+                              @Value("${lolomo.artwork.stub.error-rate:0}") double errorRate) {
+        this.artworkService = artworkService;
+        this.latency = latency;
+        this.latencyJitter = latencyJitter;
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Generates the URLs of a batch after the injected delay. The delay is
+     * scheduled rather than slept, so the returned future is pending until it
+     * has elapsed and callers can time out on it like on a remote call.
+     *
+     * @param titles Titles of the batch
+     * @return Per-title results, some failed according to the error rate
+     */
+    @Override
+    public CompletionStage<Map<String, ArtworkResult>> fetch(Set<String> titles) {
+        long delay = latency.toMillis()
+                + (latencyJitter.isZero() ? 0 : ThreadLocalRandom.current().nextLong(latencyJitter.toMillis() + 1));
+        if (delay <= 0) {
+            return CompletableFuture.completedFuture(generate(titles));
+        }
+        return CompletableFuture.supplyAsync(() -> generate(titles),
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor));
+    }
+
+    private Map<String, ArtworkResult> generate(Set<String> titles) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, ArtworkResult> results = new HashMap<>(titles.size());
+        artworkService.batchGenerator(titles).forEach((title, url) -> results.put(title,
+                random.nextDouble() < errorRate
+                        ? ArtworkResult.failure(new IllegalStateException("Injected artwork failure for " + title))
+                        : ArtworkResult.success(url)));
+        return results;
+    }
+
+    /**
+     * Stops the pending delayed batches.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,24 @@
+package com.netflix.spring_lolomo_service;
+
+import com.netflix.spring_lolomo_service.codegen.types.SearchInput;
+import com.netflix.spring_lolomo_service.codegen.types.Show;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+class LolomoRuntimeHintsTest {
+
+    @Test
+    void registersGraphQLTypesAndCatalogResources() {
+        RuntimeHints hints = new RuntimeHints();
+        new LolomoRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assert RuntimeHintsPredicates.reflection().onType(Show.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints);
+        assert RuntimeHintsPredicates.reflection().onType(SearchInput.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints);
+        assert RuntimeHintsPredicates.resource().forResource("shows.json").test(hints);
+        assert RuntimeHintsPredicates.resource().forResource("schema/schema.graphqls").test(hints);
+    }
+}
@@ -2,18 +2,36 @@ package com.netflix.spring_lolomo_service.datafetcher;
 
 import com.netflix.graphql.dgs.DgsQueryExecutor;
 import com.netflix.graphql.dgs.test.EnableDgsTest;
+import com.netflix.spring_lolomo_service.progress.ViewingProgressStore;
 import com.netflix.spring_lolomo_service.repository.ShowsRepository;
+import com.netflix.spring_lolomo_service.row.LolomoAssembler;
+import com.netflix.spring_lolomo_service.row.LolomoPlanner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.intellij.lang.annotations.Language;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 
-@SpringBootTest(classes = {LolomoDataFetcher.class, ShowsRepository.class})
+@SpringBootTest(classes = {LolomoDataFetcher.class, ShowsDataLoader.class, ShowsRepository.class, LolomoAssembler.class,
+        LolomoPlanner.class, ViewingProgressStore.class, SimpleMeterRegistry.class})
 @EnableDgsTest
 class LolomoDataFetcherTest {
 
+    @TempDir
+    static Path progressPath;
+
+    @DynamicPropertySource
+    static void progressProperties(DynamicPropertyRegistry registry) {
+        registry.add("lolomo.progress.path", progressPath::toString);
+    }
+
     @Autowired
     private DgsQueryExecutor dgsQueryExecutor;
 
@@ -29,4 +47,118 @@ class LolomoDataFetcherTest {
         List<String> titles = dgsQueryExecutor.executeAndExtractJsonPath(query, "data.search[+].title");
         assert titles.size() == 1;
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchIgnoresCaseAndAccents() {
+        @Language("GraphQL")
+        var query = """
+            {
+                search(filter: {title: "BRÉAK"}) {title}
+            }
+        """;
+
+        List<String> titles = dgsQueryExecutor.executeAndExtractJsonPath(query, "data.search[*].title");
+        assert titles.equals(List.of("Breaking Bad"));
+    }
+
+    @Test
+    void searchPaginates() {
+        @Language("GraphQL")
+        var firstPage = """
+            {
+                search(filter: {title: "enola"}, first: 1) {showId title}
+            }
+        """;
+        @Language("GraphQL")
+        var secondPage = """
+            {
+                search(filter: {title: "enola"}, first: 1, after: 14) {showId title}
+            }
+        """;
+
+        List<String> first = dgsQueryExecutor.executeAndExtractJsonPath(firstPage, "data.search[*].title");
+        List<String> second = dgsQueryExecutor.executeAndExtractJsonPath(secondPage, "data.search[*].title");
+        assert first.equals(List.of("Enola Holmes"));
+        assert second.equals(List.of("Enola Holmes 2"));
+    }
+
+    @Test
+    void fullTextSearch() {
+        @Language("GraphQL")
+        var query = """
+            {
+                fullTextSearch(query: "heist robbers", first: 3) {title}
+            }
+        """;
+
+        List<String> titles = dgsQueryExecutor.executeAndExtractJsonPath(query, "data.fullTextSearch[*].title");
+        assert titles.get(0).equals("Money Heist");
+    }
+
+    @Test
+    void continueWatchingFollowsRecordedProgress() {
+        @Language("GraphQL")
+        var mutation = """
+            mutation ($showId: Int!) {
+                recordProgress(userId: 42, showId: $showId, position: 120)
+            }
+        """;
+        @Language("GraphQL")
+        var query = """
+            {
+                lolomo(userId: 42) {name shows {showId}}
+            }
+        """;
+
+        for (int showId : new int[]{3, 5, 3}) {
+            assert dgsQueryExecutor.execute(mutation, Map.of("showId", showId)).getErrors().isEmpty();
+        }
+
+        List<String> rows = dgsQueryExecutor.executeAndExtractJsonPath(query, "data.lolomo[*].name");
+        List<Integer> continueWatching = dgsQueryExecutor.executeAndExtractJsonPath(query, "data.lolomo[1].shows[*].showId");
+        assert rows.subList(0, 2).equals(List.of("Top 10", "Continue Watching"));
+        assert continueWatching.equals(List.of(3, 5));
+    }
+
+    @Test
+    void anonymousLolomoHasNoContinueWatching() {
+        List<String> rows = dgsQueryExecutor.executeAndExtractJsonPath("{ lolomo { name } }", "data.lolomo[*].name");
+
+        assert rows.get(0).equals("Top 10");
+        assert !rows.contains("Continue Watching");
+    }
+
+    @Test
+    void showEntitiesResolveInRepresentationOrder() {
+        @Language("GraphQL")
+        var query = """
+            query ($representations: [_Any!]!) {
+                _entities(representations: $representations) {
+                    ... on Show { showId title }
+                }
+            }
+        """;
+        var representations = List.of(
+                Map.of("__typename", "Show", "showId", 1),
+                Map.of("__typename", "Show", "showId", -1),
+                Map.of("__typename", "Show", "showId", 4));
+
+        List<String> titles = dgsQueryExecutor.executeAndExtractJsonPath(query, "data._entities[*].title",
+                Map.of("representations", representations));
+
+        assert titles.size() == 3;
+        assert titles.get(0).equals("Stranger Things");
+        assert titles.get(1) == null;
+        assert titles.get(2).equals("The Irishman");
+    }
+
+    @Test
+    void showsByIdsReturnsNullForUnknownIds() {
+        List<String> titles = dgsQueryExecutor.executeAndExtractJsonPath("{ showsByIds(ids: [1, -1, 1]) { title } }",
+                "data.showsByIds[*].title");
+
+        assert titles.size() == 3;
+        assert titles.get(0).equals("Stranger Things") && titles.get(2).equals("Stranger Things");
+        assert titles.get(1) == null;
+    }
+}
@@ -0,0 +1,77 @@
+package com.netflix.spring_lolomo_service.incremental;
+
+import com.netflix.graphql.dgs.DgsQueryExecutor;
+import com.netflix.graphql.dgs.test.EnableDgsTest;
+import com.netflix.spring_lolomo_service.datafetcher.LolomoDataFetcher;
+import com.netflix.spring_lolomo_service.progress.ViewingProgressStore;
+import com.netflix.spring_lolomo_service.repository.ShowsRepository;
+import com.netflix.spring_lolomo_service.row.LolomoAssembler;
+import com.netflix.spring_lolomo_service.row.LolomoPlanner;
+import graphql.ExecutionResult;
+import graphql.incremental.DelayedIncrementalPartialResult;
+import graphql.incremental.IncrementalExecutionResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+@SpringBootTest(classes = {LolomoDataFetcher.class, ShowsRepository.class, LolomoAssembler.class, LolomoPlanner.class,
+        ViewingProgressStore.class, IncrementalDeliveryInstrumentation.class, SimpleMeterRegistry.class})
+@EnableDgsTest
+class IncrementalDeliveryInstrumentationTest {
+
+    @Language("GraphQL")
+    private static final String QUERY = """
+        {
+            search(filter: {title: "Breaking"}) {
+                title
+                ... @defer(label: "details") { description }
+            }
+        }
+    """;
+
+    @TempDir
+    static Path progressPath;
+
+    @DynamicPropertySource
+    static void progressProperties(DynamicPropertyRegistry registry) {
+        registry.add("lolomo.progress.path", progressPath::toString);
+    }
+
+    @Autowired
+    private DgsQueryExecutor dgsQueryExecutor;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void markedRequestsDeliverDeferredFragmentsLater() {
+        ExecutionResult result = dgsQueryExecutor.execute(QUERY, Map.of(),
+                IncrementalDeliveryInstrumentation.mark(null), null, null, null);
+
+        assert result instanceof IncrementalExecutionResult;
+        var incremental = (IncrementalExecutionResult) result;
+        var shows = ((Map<String, List<Map<String, Object>>>) incremental.getData()).get("search");
+        assert shows.get(0).get("title").equals("Breaking Bad");
+        assert !shows.get(0).containsKey("description");
+
+        List<DelayedIncrementalPartialResult> parts = Flux.from(incremental.getIncrementalItemPublisher()).collectList().block();
+        assert parts.get(parts.size() - 1).hasNext() == false;
+        assert parts.stream().flatMap(part -> part.getIncremental().stream())
+                .anyMatch(item -> "details".equals(item.getLabel()));
+    }
+
+    @Test
+    void regularRequestsResolveDeferredFragmentsInline() {
+        List<String> descriptions = dgsQueryExecutor.executeAndExtractJsonPath(QUERY, "data.search[*].description");
+
+        assert descriptions.size() == 1 && descriptions.get(0) != null;
+    }
+}
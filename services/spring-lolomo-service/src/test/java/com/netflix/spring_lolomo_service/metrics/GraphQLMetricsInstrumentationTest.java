@@ -0,0 +1,40 @@
+package com.netflix.spring_lolomo_service.metrics;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResultImpl;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderFactory;
+import org.dataloader.DataLoaderRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+class GraphQLMetricsInstrumentationTest {
+
+    @Test
+    void countsDataLoaderLoadsAndCacheHits() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var instrumentation = new GraphQLMetricsInstrumentation(meterRegistry, new OperationTags(List.of()), 0);
+
+        for (int request = 0; request < 2; request++) {
+            DataLoader<Integer, Integer> shows = DataLoaderFactory.newDataLoader(keys -> CompletableFuture.completedFuture(keys));
+            var dataLoaderRegistry = DataLoaderRegistry.newRegistry().register("shows", shows).build();
+            shows.load(1);
+            shows.load(2);
+            shows.load(1);
+            dataLoaderRegistry.dispatchAll();
+
+            var input = ExecutionInput.newExecutionInput("{ showsByIds(ids: [1, 2, 1]) { title } }")
+                    .dataLoaderRegistry(dataLoaderRegistry)
+                    .build();
+            instrumentation.instrumentExecutionResult(ExecutionResultImpl.newExecutionResult().build(),
+                    new InstrumentationExecutionParameters(input, null), null).join();
+        }
+
+        assert meterRegistry.get("graphql.dataloader.loads").tag("loader", "shows").counter().count() == 6;
+        assert meterRegistry.get("graphql.dataloader.cache.hits").tag("loader", "shows").counter().count() == 2;
+    }
+}
@@ -0,0 +1,19 @@
+package com.netflix.spring_lolomo_service.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class OperationTagsTest {
+
+    @Test
+    void onlyListedOperationsKeepTheirName() {
+        var tags = new OperationTags(List.of("Lolomo", " Search "));
+
+        assert tags.tag("Lolomo").equals("Lolomo");
+        assert tags.tag("Search").equals("Search");
+        assert tags.tag("Lolomo_" + System.nanoTime()).equals(OperationTags.OTHER);
+        assert tags.tag(null).equals(OperationTags.ANONYMOUS);
+        assert tags.tag(" ").equals(OperationTags.ANONYMOUS);
+    }
+}
@@ -0,0 +1,82 @@
+package com.netflix.spring_lolomo_service.progress;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+class ViewingProgressStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsMostRecentShowsFirstAndEvictsTheOldest() throws Exception {
+        var store = open(3);
+
+        store.record(1, 10, 60);
+        store.record(1, 20, 60);
+        store.record(1, 30, 60);
+        store.record(1, 10, 90);
+        store.record(1, 40, 60);
+
+        assert showIds(store.recent(1, 10)).equals(List.of(40, 10, 30));
+        assert store.recent(1, 10).get(1).position() == 90;
+        assert showIds(store.recent(1, 2)).equals(List.of(40, 10));
+        assert store.recent(2, 10).isEmpty();
+        store.close();
+    }
+
+    @Test
+    void recoversFromSnapshot() throws Exception {
+        var store = open(50);
+        store.record(1, 10, 60);
+        store.record(1, 20, 30);
+        store.record(2, 10, 5);
+        store.close();
+
+        var recovered = open(50);
+
+        assert showIds(recovered.recent(1, 10)).equals(List.of(20, 10));
+        assert recovered.recent(1, 10).get(1).position() == 60;
+        assert showIds(recovered.recent(2, 10)).equals(List.of(10));
+        recovered.close();
+    }
+
+    @Test
+    void concurrentHeartbeatsOfManyUsers() throws Exception {
+        var store = open(50);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < 100; user++) {
+                int userId = user;
+                executor.execute(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        store.record(userId, i % 20, i);
+                    }
+                });
+            }
+        }
+
+        for (int user = 0; user < 100; user++) {
+            List<ViewingProgress> recent = store.recent(user, 50);
+            assert recent.size() == 20;
+            assert recent.get(0).showId() == 19 && recent.get(0).position() == 999;
+        }
+        store.close();
+    }
+
+    private ViewingProgressStore open(int maxShowsPerUser) throws Exception {
+        var store = new ViewingProgressStore(directory.toString(), maxShowsPerUser, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        store.open();
+        return store;
+    }
+
+    private static List<Integer> showIds(List<ViewingProgress> progress) {
+        return progress.stream().map(ViewingProgress::showId).toList();
+    }
+}
@@ -0,0 +1,101 @@
+package com.netflix.spring_lolomo_service.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.parser.Parser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+class PersistedQueryDocumentProviderTest {
+
+    private static final String QUERY = "{ lolomo { title } }";
+
+    private final AtomicInteger parses = new AtomicInteger();
+
+    private final Function<ExecutionInput, PreparsedDocumentEntry> parse = input -> {
+        parses.incrementAndGet();
+        return new PreparsedDocumentEntry(Parser.parse(input.getQuery()));
+    };
+
+    @Test
+    void parsesEachDocumentOnce() throws Exception {
+        var provider = provider("", false);
+
+        var first = provider.getDocumentAsync(ExecutionInput.newExecutionInput(QUERY).build(), parse).join();
+        var second = provider.getDocumentAsync(ExecutionInput.newExecutionInput(QUERY).build(), parse).join();
+
+        assert parses.get() == 1;
+        assert first.getDocument() == second.getDocument();
+    }
+
+    @Test
+    void persistedQueryRoundTrip() throws Exception {
+        var provider = provider("", false);
+        String hash = sha256(QUERY);
+
+        var missing = provider.getDocumentAsync(persisted("", hash), parse).join();
+        assert missing.getErrors().get(0) instanceof PersistedQueryNotFound;
+
+        var registered = provider.getDocumentAsync(persisted(QUERY, hash), parse).join();
+        assert !registered.hasErrors();
+
+        var hit = provider.getDocumentAsync(persisted("", hash), parse).join();
+        assert hit.getDocument() == registered.getDocument();
+        assert parses.get() == 1;
+    }
+
+    @Test
+    void rejectsHashMismatch() throws Exception {
+        var provider = provider("", false);
+
+        var entry = provider.getDocumentAsync(persisted(QUERY, sha256("{ other }")), parse).join();
+
+        assert entry.hasErrors();
+        assert parses.get() == 0;
+    }
+
+    @Test
+    void allowlistOnlyRunsManifestOperations(@TempDir Path directory) throws Exception {
+        Path manifest = directory.resolve("manifest.json");
+        Files.writeString(manifest, """
+                {"format": "apollo-persisted-query-manifest", "version": 1, "operations": [
+                  {"id": "%s", "name": "Lolomo", "type": "query", "body": "%s"}
+                ]}
+                """.formatted(sha256(QUERY), QUERY));
+        var provider = provider(manifest.toUri().toString(), true);
+
+        var byHash = provider.getDocumentAsync(persisted("", sha256(QUERY)), parse).join();
+        assert !byHash.hasErrors();
+
+        var unknown = provider.getDocumentAsync(ExecutionInput.newExecutionInput("{ __schema { types { name } } }").build(), parse).join();
+        assert unknown.hasErrors();
+        assert parses.get() == 1;
+    }
+
+    private static PersistedQueryDocumentProvider provider(String manifest, boolean allowlistOnly) throws Exception {
+        return new PersistedQueryDocumentProvider(new ObjectMapper(), new SimpleMeterRegistry(), 100, manifest, allowlistOnly);
+    }
+
+    private static ExecutionInput persisted(String query, String hash) {
+        return ExecutionInput.newExecutionInput(query)
+                .extensions(Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)))
+                .build();
+    }
+
+    private static String sha256(String text) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+}
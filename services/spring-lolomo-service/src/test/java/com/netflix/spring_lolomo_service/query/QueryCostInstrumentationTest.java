@@ -0,0 +1,81 @@
+package com.netflix.spring_lolomo_service.query;
+
+import com.netflix.graphql.dgs.DgsQueryExecutor;
+import com.netflix.graphql.dgs.test.EnableDgsTest;
+import com.netflix.spring_lolomo_service.datafetcher.LolomoDataFetcher;
+import com.netflix.spring_lolomo_service.metrics.OperationTags;
+import com.netflix.spring_lolomo_service.progress.ViewingProgressStore;
+import com.netflix.spring_lolomo_service.repository.ShowsRepository;
+import com.netflix.spring_lolomo_service.row.LolomoAssembler;
+import com.netflix.spring_lolomo_service.row.LolomoPlanner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+@SpringBootTest(classes = {LolomoDataFetcher.class, ShowsRepository.class, LolomoAssembler.class, LolomoPlanner.class,
+        ViewingProgressStore.class, QueryCostInstrumentation.class, OperationTags.class, SimpleMeterRegistry.class},
+        properties = {"graphql.cost.max-cost=1000", "graphql.cost.max-depth=2"})
+@EnableDgsTest
+class QueryCostInstrumentationTest {
+
+    @TempDir
+    static Path progressPath;
+
+    @DynamicPropertySource
+    static void progressProperties(DynamicPropertyRegistry registry) {
+        registry.add("lolomo.progress.path", progressPath::toString);
+    }
+
+    @Autowired
+    private DgsQueryExecutor dgsQueryExecutor;
+
+    @Test
+    void searchIsBoundedByTheCatalog() {
+        @Language("GraphQL")
+        var query = """
+            {
+                search(filter: {title: "The"}, first: 1000) {title}
+            }
+        """;
+
+        var result = dgsQueryExecutor.execute(query);
+
+        assert result.getErrors().isEmpty();
+        var cost = (Map<?, ?>) result.getExtensions().get("cost");
+        assert ((Number) cost.get("estimated")).longValue() == 1;
+    }
+
+    @Test
+    void rejectsAliasedRowsOverBudget() {
+        @Language("GraphQL")
+        var query = """
+            {
+                a: lolomo { shows { title artworkUrl } }
+                b: lolomo { shows { title artworkUrl } }
+            }
+        """;
+
+        var result = dgsQueryExecutor.execute(query);
+
+        assert result.getData() == null;
+        assert result.getErrors().size() == 1;
+        assert result.getErrors().get(0).getMessage().contains("exceeds the maximum of 1000");
+        assert "QueryTooExpensive".equals(result.getErrors().get(0).getExtensions().get("classification"));
+    }
+
+    @Test
+    void rejectsDeepOperations() {
+        var result = dgsQueryExecutor.execute("{ lolomo { shows { title } } }");
+
+        assert result.getErrors().size() == 1;
+        assert result.getErrors().get(0).getMessage().equals("Operation depth 3 exceeds the maximum of 2");
+    }
+}
@@ -0,0 +1,174 @@
+package com.netflix.spring_lolomo_service.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.spring_lolomo_service.repository.ShowsRepository;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.parser.Parser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ResponseCacheFilterTest {
+
+    private static final String CACHED = "query Lolomo @cached { lolomo { name } }";
+    private static final String UNCACHED = "query Lolomo { lolomo { name } }";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ShowsRepository showsRepository = new ShowsRepository(objectMapper, "");
+    private final AtomicInteger executions = new AtomicInteger();
+    private final AtomicBoolean degraded = new AtomicBoolean();
+
+    /**
+     * Stands in for the GraphQL endpoint: echoes the request body inside a result
+     */
+    private final HttpServlet endpoint = new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            executions.incrementAndGet();
+            String body = StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8);
+            response.setContentType("application/json");
+            Map<String, Object> result = degraded.get()
+                    ? Map.of("data", body, "extensions", Map.of("degraded", true))
+                    : Map.of("data", body);
+            response.getWriter().write(objectMapper.writeValueAsString(result));
+        }
+    };
+
+    @Test
+    void servesMarkedQueriesFromCacheUntilTheCatalogChanges() throws Exception {
+        showsRepository.loadShows();
+        var filter = filter(CACHED);
+
+        var first = post(filter, CACHED, "{\"a\": 1, \"b\": 2}");
+        var second = post(filter, CACHED, "{\"b\": 2, \"a\": 1}");
+        assert executions.get() == 1;
+        assert second.getContentAsString().equals(first.getContentAsString());
+        assert second.getContentType().startsWith("application/json");
+
+        post(filter, CACHED, "{\"a\": 2}");
+        assert executions.get() == 2;
+
+        showsRepository.reload();
+        post(filter, CACHED, "{\"a\": 1, \"b\": 2}");
+        assert executions.get() == 3;
+    }
+
+    @Test
+    void executesUnmarkedQueries() throws Exception {
+        showsRepository.loadShows();
+        var filter = filter(UNCACHED);
+
+        post(filter, UNCACHED, "{}");
+        var second = post(filter, UNCACHED, "{}");
+
+        assert executions.get() == 2;
+        assert second.getContentAsString().contains("lolomo");
+    }
+
+    @Test
+    void doesNotStoreDegradedPages() throws Exception {
+        showsRepository.loadShows();
+        var filter = filter(CACHED);
+
+        degraded.set(true);
+        post(filter, CACHED, "{}");
+        degraded.set(false);
+        post(filter, CACHED, "{}");
+        post(filter, CACHED, "{}");
+
+        assert executions.get() == 2;
+    }
+
+    @Test
+    void handsTheQueryHashToTheDocumentProvider() throws Exception {
+        showsRepository.loadShows();
+
+        var cached = request(CACHED, "{}");
+        filter(CACHED).doFilter(cached, new MockHttpServletResponse(), new MockFilterChain(endpoint));
+        assert PersistedQueryDocumentProvider.sha256(CACHED)
+                .equals(cached.getAttribute(PersistedQueryDocumentProvider.HASH_ATTRIBUTE));
+
+        // Without any @cached document the body is not even parsed
+        var uncached = request(UNCACHED, "{}");
+        filter(UNCACHED).doFilter(uncached, new MockHttpServletResponse(), new MockFilterChain(endpoint));
+        assert uncached.getAttribute(PersistedQueryDocumentProvider.HASH_ATTRIBUTE) == null;
+    }
+
+    @Test
+    void replaysTheBodyToReadListeners() throws Exception {
+        showsRepository.loadShows();
+        var read = new ByteArrayOutputStream();
+        var allDataRead = new AtomicBoolean();
+        HttpServlet nonBlocking = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                ServletInputStream input = request.getInputStream();
+                input.setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws IOException {
+                        byte[] buffer = new byte[16];
+                        while (input.isReady() && !input.isFinished()) {
+                            read.write(buffer, 0, input.read(buffer));
+                        }
+                    }
+
+                    @Override
+                    public void onAllDataRead() {
+                        allDataRead.set(true);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        throw new AssertionError(t);
+                    }
+                });
+            }
+        };
+
+        var request = request(CACHED, "{}");
+        filter(CACHED).doFilter(request, new MockHttpServletResponse(), new MockFilterChain(nonBlocking));
+
+        assert allDataRead.get();
+        assert read.toString(StandardCharsets.UTF_8).contains("@cached");
+    }
+
+    private ResponseCacheFilter filter(String parsedQuery) throws Exception {
+        var documents = new PersistedQueryDocumentProvider(objectMapper, new SimpleMeterRegistry(), 100, "", false);
+        documents.getDocumentAsync(ExecutionInput.newExecutionInput(parsedQuery).build(),
+                input -> new PreparsedDocumentEntry(Parser.parse(input.getQuery()))).join();
+        return new ResponseCacheFilter(objectMapper, documents, showsRepository, new SimpleMeterRegistry(),
+                "/graphql", DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+    }
+
+    private MockHttpServletResponse post(ResponseCacheFilter filter, String query, String variables) throws Exception {
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request(query, variables), response, new MockFilterChain(endpoint));
+        return response;
+    }
+
+    private MockHttpServletRequest request(String query, String variables) throws Exception {
+        var request = new MockHttpServletRequest("POST", "/graphql");
+        request.setContentType("application/json");
+        request.setContent(("{\"query\": " + objectMapper.writeValueAsString(query)
+                + ", \"variables\": " + variables + "}").getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
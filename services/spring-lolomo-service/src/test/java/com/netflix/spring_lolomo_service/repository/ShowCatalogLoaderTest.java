@@ -0,0 +1,70 @@
+package com.netflix.spring_lolomo_service.repository;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShowCatalogLoaderTest {
+
+    @Test
+    void loadsShows() throws IOException {
+        var catalog = load("""
+            [{"showId": 1, "title": "Dark", "categories": ["Drama", "Thriller"], "extra": {"nested": [1]}}]
+        """);
+
+        assert catalog.size() == 1;
+        assert catalog.findAll(List.of(1)).get(0).getCategories().equals(List.of("Drama", "Thriller"));
+    }
+
+    @Test
+    void rejectsNonObjectEntries() {
+        assertThrows(JsonParseException.class, () -> load("""
+            [{"showId": 1, "title": "Dark"}, 2, {"showId": 3, "title": "Ozark"}]
+        """));
+    }
+
+    @Test
+    void rejectsCategoriesThatAreNotAnArrayOfStrings() {
+        assertThrows(JsonParseException.class, () -> load("""
+            [{"showId": 1, "title": "Dark", "categories": "Drama"}]
+        """));
+        assertThrows(JsonParseException.class, () -> load("""
+            [{"showId": 1, "title": "Dark", "categories": [["Drama"]]}]
+        """));
+    }
+
+    @Test
+    void rejectsShowsWithoutId() {
+        assertThrows(JsonParseException.class, () -> load("""
+            [{"showId": 1, "title": "Dark"}, {"title": "Ozark"}]
+        """));
+        assertThrows(JsonParseException.class, () -> load("""
+            [{"showId": null, "title": "Ozark"}]
+        """));
+    }
+
+    @Test
+    void rejectsUnknownShowTypes() {
+        assertThrows(JsonParseException.class, () -> load("""
+            [{"showId": 1, "title": "Dark", "type": "PODCAST"}]
+        """));
+    }
+
+    @Test
+    void rejectsTruncatedDocuments() {
+        assertThrows(JsonParseException.class, () -> load("""
+            [{"showId": 1, "title": "Dark", "categories": ["Drama"
+        """));
+    }
+
+    private static ShowCatalog load(String json) throws IOException {
+        return ShowCatalogLoader.load(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), new JsonFactory(), 1);
+    }
+}
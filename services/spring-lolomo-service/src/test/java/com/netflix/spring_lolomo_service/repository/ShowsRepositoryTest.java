@@ -0,0 +1,87 @@
+package com.netflix.spring_lolomo_service.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.spring_lolomo_service.codegen.types.ShowType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShowsRepositoryTest {
+
+    private ShowsRepository showsRepository;
+
+    @BeforeEach
+    void setUp() {
+        showsRepository = new ShowsRepository(new ObjectMapper(), null);
+        showsRepository.loadShows();
+    }
+
+    @Test
+    void byId() {
+        assert showsRepository.byId(1).getTitle().equals("Stranger Things");
+        assertThrows(NoSuchElementException.class, () -> showsRepository.byId(-1));
+    }
+
+    @Test
+    void loadsAllColumns() {
+        var irishman = showsRepository.byId(4);
+        assert irishman.getType() == ShowType.MOVIE;
+        assert "3h 29m".equals(irishman.getDuration());
+        assert irishman.getNumberOfEpisodes() == null;
+        assert irishman.getCategories().equals(List.of("Drama", "Crime", "History"));
+
+        var strangerThings = showsRepository.byId(1);
+        assert strangerThings.getType() == ShowType.SERIES;
+        assert strangerThings.getNumberOfEpisodes() == 34;
+        assert strangerThings.getDuration() == null;
+        assert showsRepository.allShows().size() == 46;
+    }
+
+    @Test
+    void showsForCategory() {
+        var thrillers = showsRepository.showsForCategory("Thriller");
+        assert !thrillers.isEmpty();
+        assert thrillers.stream().allMatch(show -> show.getCategories().contains("Thriller"));
+        assert showsRepository.showsForCategory("Top 10").size() == 10;
+        assert showsRepository.showsForCategory("Continue Watching").size() == 3;
+        assert showsRepository.showsForCategory("Unknown").isEmpty();
+    }
+
+    @Test
+    void categoriesAreInterned() {
+        var thrillers = showsRepository.showsForCategory("Thriller");
+        var first = thrillers.get(0).getCategories().stream().filter("Thriller"::equals).findFirst().get();
+        var last = thrillers.get(thrillers.size() - 1).getCategories().stream().filter("Thriller"::equals).findFirst().get();
+        assert first == last;
+    }
+
+    @Test
+    void reloadPublishesNewSnapshot(@TempDir Path directory) throws IOException {
+        Path catalogFile = directory.resolve("shows.json");
+        Files.writeString(catalogFile, """
+                [{"showId": 1, "title": "Dark", "categories": ["Sci-Fi"], "type": "SERIES", "numberOfEpisodes": 26}]
+                """);
+        var repository = new ShowsRepository(new ObjectMapper(), catalogFile.toString());
+        repository.loadShows();
+        var before = repository.snapshot();
+
+        Files.writeString(catalogFile, """
+                [{"showId": 1, "title": "Dark", "categories": ["Sci-Fi"], "type": "SERIES", "numberOfEpisodes": 26},
+                 {"showId": 2, "title": "Roma", "categories": ["Drama"], "type": "MOVIE", "length": "2h 15m"}]
+                """);
+        var after = repository.reload();
+
+        assert repository.snapshot() == after;
+        assert after.version() > before.version();
+        assert after.size() == 2 && before.size() == 1;
+        assert repository.byId(2).getDuration().equals("2h 15m");
+    }
+}
\ No newline at end of file
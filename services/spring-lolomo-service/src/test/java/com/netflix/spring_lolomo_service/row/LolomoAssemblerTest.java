@@ -0,0 +1,119 @@
+package com.netflix.spring_lolomo_service.row;
+
+import com.netflix.spring_lolomo_service.codegen.types.Show;
+import com.netflix.spring_lolomo_service.codegen.types.ShowCategory;
+import com.netflix.spring_lolomo_service.repository.ShowCatalog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class LolomoAssemblerTest {
+
+    private static final Duration TIMEOUT = Duration.ofMillis(100);
+
+    private final ShowCatalog catalog = ShowCatalog.of(List.of(
+            Show.newBuilder().showId(1).title("One").categories(List.of("Drama")).build(),
+            Show.newBuilder().showId(2).title("Two").categories(List.of("Drama")).build()));
+
+    @Test
+    void rowsRunConcurrentlyAndKeepTheirOrder() {
+        // Every row waits for the other two; run one after the other, the first would time out
+        var allRowsStarted = new CyclicBarrier(3);
+        var assembler = assembler(List.of(
+                meetingRow("a", allRowsStarted, List.of(show(1))),
+                meetingRow("b", allRowsStarted, List.of(show(2))),
+                meetingRow("c", allRowsStarted, List.of(show(1), show(2)))));
+
+        LolomoPage page = assembler.assemble(7, catalog);
+
+        assert !page.degraded();
+        assert page.rows().stream().map(ShowCategory::getName).toList().equals(List.of("a", "b", "c"));
+        assembler.shutdown();
+    }
+
+    @Test
+    void lateRowFallsBackToLastGoodThenGeneric() throws Exception {
+        AtomicBoolean slow = new AtomicBoolean(false);
+        AtomicBoolean interrupted = new AtomicBoolean(false);
+        Row flaky = new Row("flaky", (userId, snapshot) -> {
+            if (slow.get()) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                    throw e;
+                }
+            }
+            return List.of(show(userId));
+        }, (userId, snapshot) -> List.of(show(0)), TIMEOUT);
+        var assembler = assembler(List.of(flaky, row("fast", 0, List.of(show(1)))));
+
+        LolomoPage fresh = assembler.assemble(1, catalog);
+        assert !fresh.degraded();
+        assert fresh.rows().get(0).getShows().get(0).getShowId() == 1;
+
+        slow.set(true);
+        long start = System.nanoTime();
+        LolomoPage lastGood = assembler.assemble(1, catalog);
+        assert (System.nanoTime() - start) / 1_000_000 < 1_000;
+        assert lastGood.degraded();
+        assert lastGood.rows().get(0).getShows().get(0).getShowId() == 1;
+        assert lastGood.rows().get(1).getName().equals("fast");
+
+        LolomoPage generic = assembler.assemble(2, catalog);
+        assert generic.degraded();
+        assert generic.rows().get(0).getShows().get(0).getShowId() == 0;
+
+        Thread.sleep(50);
+        assert interrupted.get();
+        assembler.shutdown();
+    }
+
+    @Test
+    void failedRowWithoutFallbackIsLeftOut() {
+        Row failing = new Row("failing", (userId, snapshot) -> {
+            throw new IllegalStateException("backend down");
+        }, (userId, snapshot) -> List.of(), TIMEOUT);
+        var assembler = assembler(List.of(failing, row("ok", 0, List.of(show(1)))));
+
+        LolomoPage page = assembler.assemble(null, catalog);
+
+        assert page.degraded();
+        assert page.rows().size() == 1;
+        assert page.rows().get(0).getName().equals("ok");
+        assembler.shutdown();
+    }
+
+    private static LolomoAssembler assembler(List<Row> rows) {
+        LolomoPlanner planner = new LolomoPlanner(null, 40, 20, TIMEOUT) {
+            @Override
+            public List<Row> rows(ShowCatalog catalog) {
+                return rows;
+            }
+        };
+        return new LolomoAssembler(planner, new SimpleMeterRegistry(), 1000, Duration.ofMinutes(1));
+    }
+
+    private static Row row(String name, long delayMillis, List<Show> shows) {
+        return new Row(name, (userId, snapshot) -> {
+            Thread.sleep(delayMillis);
+            return shows;
+        }, (userId, snapshot) -> List.of(), Duration.ofSeconds(1));
+    }
+
+    private static Row meetingRow(String name, CyclicBarrier barrier, List<Show> shows) {
+        return new Row(name, (userId, snapshot) -> {
+            barrier.await(5, TimeUnit.SECONDS);
+            return shows;
+        }, (userId, snapshot) -> List.of(), Duration.ofSeconds(10));
+    }
+
+    private static Show show(int showId) {
+        return Show.newBuilder().showId(showId).title("Show " + showId).build();
+    }
+}
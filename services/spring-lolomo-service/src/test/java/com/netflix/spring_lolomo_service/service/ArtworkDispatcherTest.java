@@ -0,0 +1,64 @@
+package com.netflix.spring_lolomo_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+
+class ArtworkDispatcherTest {
+
+    @Test
+    void splitsIntoBatchesAndKeepsPartialFailuresPerKey() {
+        List<Set<String>> calls = new CopyOnWriteArrayList<>();
+        ArtworkBackend backend = titles -> {
+            calls.add(titles);
+            Map<String, ArtworkResult> results = new HashMap<>();
+            titles.forEach(title -> results.put(title, title.equals("b")
+                    ? ArtworkResult.failure(new IllegalStateException("broken"))
+                    : ArtworkResult.success(title + ".jpg")));
+            return CompletableFuture.completedFuture(results);
+        };
+        var dispatcher = new ArtworkDispatcher(backend, 2, Duration.ofSeconds(1), 4);
+
+        var results = dispatcher.fetch(Set.of("a", "b", "c", "d", "e")).join();
+
+        assert calls.size() == 3;
+        assert calls.stream().allMatch(batch -> batch.size() <= 2);
+        assert results.size() == 5;
+        assert !results.get("b").isSuccess();
+        assert results.get("a").url().equals("a.jpg");
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void timedOutBatchFailsItsKeys() {
+        ArtworkBackend backend = titles -> new CompletableFuture<>();
+        var dispatcher = new ArtworkDispatcher(backend, 10, Duration.ofMillis(50), 1);
+
+        var results = dispatcher.fetch(Set.of("a", "b")).join();
+
+        assert results.values().stream().noneMatch(ArtworkResult::isSuccess);
+        assert results.get("a").error() instanceof TimeoutException;
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void slowStubBackendTimesOut() {
+        var backend = new StubArtworkBackend(new ArtworkService("1"), Duration.ofSeconds(2), Duration.ZERO, 0);
+        var dispatcher = new ArtworkDispatcher(backend, 10, Duration.ofMillis(50), 1);
+
+        long start = System.nanoTime();
+        var results = dispatcher.fetch(Set.of("a", "b")).join();
+
+        assert Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(1)) < 0;
+        assert results.get("a").error() instanceof TimeoutException;
+        dispatcher.shutdown();
+        backend.shutdown();
+    }
+}
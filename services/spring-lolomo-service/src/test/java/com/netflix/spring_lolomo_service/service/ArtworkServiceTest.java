@@ -0,0 +1,17 @@
+package com.netflix.spring_lolomo_service.service;
+
+import org.junit.jupiter.api.Test;
+
+class ArtworkServiceTest {
+
+    @Test
+    void artworkUrlsAreContentAddressed() {
+        var artworkService = new ArtworkService("1");
+
+        var url = artworkService.generateArtwork("The Crown");
+        assert url.equals(artworkService.generateArtwork("The Crown"));
+        assert url.endsWith("-the-crown.jpg");
+        assert !url.equals(artworkService.generateArtwork("The Witcher"));
+        assert !url.equals(new ArtworkService("2").generateArtwork("The Crown"));
+    }
+}
@@ -0,0 +1,108 @@
+package com.netflix.spring_review_service.benchmark;
+
+import com.netflix.graphql.dgs.DgsQueryExecutor;
+import com.netflix.spring_review_service.SpringReviewServiceApplication;
+import com.netflix.spring_review_service.store.ReviewStore;
+import graphql.ExecutionResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Federated {@code _entities} resolution as issued by the router for a lolomo
+ * page, from a single show up to a large page of shows, executed end to end
+ * through {@link DgsQueryExecutor} without HTTP. Every show has
+ * {@link #REVIEWS_PER_SHOW} reviews in a fresh store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EntitiesBenchmark {
+
+    private static final String ENTITIES_QUERY = """
+            query Entities($representations: [_Any!]!) {
+                _entities(representations: $representations) {
+                    ... on Show { showId reviews(first: 10) { edges { node { score text } } } }
+                }
+            }
+            """;
+
+    private static final String RECENT_REVIEWS_QUERY = """
+            query RecentReviews {
+                recentReviews(first: 20) { edges { node { score text show { showId } } } }
+            }
+            """;
+
+    private static final int REVIEWS_PER_SHOW = 20;
+
+    @Param({"1", "40", "200"})
+    public int representationCount;
+
+    private ConfigurableApplicationContext context;
+
+    private DgsQueryExecutor queryExecutor;
+
+    private Map<String, Object> variables;
+
+    private Path storePath;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException {
+        storePath = Files.createTempDirectory("reviews-benchmark");
+        context = new SpringApplicationBuilder(SpringReviewServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN", "reviews.store.seed=false",
+                        "reviews.store.path=" + storePath)
+                .run();
+        queryExecutor = context.getBean(DgsQueryExecutor.class);
+
+        ReviewStore store = context.getBean(ReviewStore.class);
+        for (int i = 0; i < REVIEWS_PER_SHOW; i++) {
+            for (int showId = 1; showId <= representationCount; showId++) {
+                store.append(showId, 1 + (showId + i) % 5, "Review " + i + " of show " + showId);
+            }
+        }
+
+        List<Map<String, Object>> representations = new ArrayList<>(representationCount);
+        for (int showId = 1; showId <= representationCount; showId++) {
+            representations.add(Map.of("__typename", "Show", "showId", showId));
+        }
+        variables = Map.of("representations", representations);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(storePath);
+    }
+
+    @Benchmark
+    public ExecutionResult entities() {
+        return queryExecutor.execute(ENTITIES_QUERY, variables);
+    }
+
+    @Benchmark
+    public ExecutionResult recentReviews() {
+        return queryExecutor.execute(RECENT_REVIEWS_QUERY);
+    }
+}
@@ -0,0 +1,39 @@
+package com.netflix.spring_review_service;
+
+import com.netflix.spring_review_service.types.PageInfo;
+import com.netflix.spring_review_service.types.Review;
+import com.netflix.spring_review_service.types.ReviewConnection;
+import com.netflix.spring_review_service.types.ReviewEdge;
+import com.netflix.spring_review_service.types.ReviewSort;
+import com.netflix.spring_review_service.types.ScoreCount;
+import com.netflix.spring_review_service.types.Show;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+/**
+ * Runtime hints for the fast-start build mode (native image and AOT).
+ * <p>
+ * Spring AOT only sees what the application context declares. Beyond that,
+ * graphql-java reads the record components of the GraphQL types reflectively,
+ * DGS converts the sort argument to its enum, and DGS loads the schema files
+ * by classpath pattern.
+ */
+public class ReviewRuntimeHints implements RuntimeHintsRegistrar {
+
+    /**
+     * GraphQL types accessed reflectively
+     */
+    private static final List<Class<?>> GRAPHQL_TYPES = List.of(Review.class, Show.class, ReviewConnection.class,
+            ReviewEdge.class, PageInfo.class, ScoreCount.class, ReviewSort.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> type : GRAPHQL_TYPES) {
+            hints.reflection().registerType(type, MemberCategory.values());
+        }
+        hints.resources().registerPattern("schema/*.graphqls");
+    }
+}
@@ -2,8 +2,10 @@ package com.netflix.spring_review_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(ReviewRuntimeHints.class)
 public class SpringReviewServiceApplication {
 
 	public static void main(String[] args) {
@@ -1,13 +1,21 @@
 package com.netflix.spring_review_service.datafetcher;
 
 import com.netflix.graphql.dgs.*;
+import com.netflix.spring_review_service.repository.ReviewPageRequest;
+import com.netflix.spring_review_service.repository.ReviewRepository;
+import com.netflix.spring_review_service.store.ShowRating;
 import com.netflix.spring_review_service.types.Review;
+import com.netflix.spring_review_service.types.ReviewConnection;
+import com.netflix.spring_review_service.types.ReviewSort;
+import com.netflix.spring_review_service.types.ScoreCount;
 import com.netflix.spring_review_service.types.Show;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.dataloader.DataLoader;
+import org.reactivestreams.Publisher;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * GraphQL data fetcher for show-related queries and reviews in the Netflix reviews service.
@@ -21,52 +29,144 @@ import java.util.Map;
 public class DataFetcher {
 
     /**
-     * Logger instance for tracking data fetching operations and debugging
+     * Repository for accessing review data
      */
-    private final static Logger LOGGER = LoggerFactory.getLogger(DataFetcher.class);
+    private final ReviewRepository reviewRepository;
 
     /**
-     * GraphQL query resolver that returns a list of recent reviews across all shows.
+     * Constructor injection for the review repository dependency.
+     *
+     * @param reviewRepository Repository instance for accessing review data
+     */
+    public DataFetcher(ReviewRepository reviewRepository) {
+        this.reviewRepository = reviewRepository;
+    }
+
+    /**
+     * GraphQL query resolver that returns a page of recent reviews across all shows.
      * <p>
      * This method provides a top-level query to fetch the most recent reviews
-     * in the system. Currently, returns mock data for demonstration purposes,
-     * but in a production system would likely query a database or cache
-     * ordered by review creation timestamp.
+     * in the system, newest first, as a Relay-style connection. Only the
+     * reviews of the requested page are read from the store.
      *
-     * @return List of recent Review objects with associated Show information
+     * @param first Page size
+     * @param after Cursor of the last review of the previous page
+     * @return Connection page of Review objects with associated Show information
      */
     @DgsQuery // Indicates this method resolves a top-level GraphQL query
-    public List<Review> recentReviews() {
-        // Return mock recent reviews with varying ratings and show associations
-        return List.of(
-                new Review(5, "Great show", new Show(1, null)),
-                new Review(1, "Not enough commercials", new Show(2, null)),
-                new Review(3, "Too scary", new Show(3, null))
-        );
+    public ReviewConnection recentReviews(@InputArgument Integer first, @InputArgument String after) {
+        return reviewRepository.recentReviews(first, after);
+    }
+
+    /**
+     * GraphQL mutation resolver storing a new review.
+     * <p>
+     * Concurrent mutations are batched into group commits by the repository's
+     * writer; the mutation only returns once its review is durable on disk.
+     *
+     * @param showId Id of the reviewed show
+     * @param score  Score from 1 to 5
+     * @param text   Review text
+     * @return CompletableFuture of the stored Review
+     */
+    @DgsMutation // Indicates this method resolves a top-level GraphQL mutation
+    public CompletableFuture<Review> addReview(@InputArgument Integer showId,
+                                               @InputArgument Integer score,
+                                               @InputArgument String text) {
+        return reviewRepository.addReview(showId, score, text);
+    }
+
+    /**
+     * GraphQL subscription resolver streaming new reviews of a show.
+     * <p>
+     * Served over the GraphQL WebSocket endpoint. Each subscriber has a bounded
+     * buffer; a client that reads too slowly skips to the latest reviews
+     * instead of building up memory on the server.
+     *
+     * @param showId Id of the show to follow
+     * @return Publisher of the show's reviews as they are committed
+     */
+    @DgsSubscription // Indicates this method resolves a GraphQL subscription
+    public Publisher<Review> reviewAdded(@InputArgument Integer showId) {
+        return reviewRepository.liveReviews(showId);
     }
 
     /**
      * GraphQL field resolver for the reviews field on Show objects.
      * <p>
      * This method is called when a GraphQL query requests the reviews field
-     * for a specific Show. It extracts the parent Show object from the execution
-     * context and returns reviews specific to that show. The logging helps
-     * track which shows are being queried for performance monitoring.
+     * for a specific Show. Rather than looking up reviews per show, it registers
+     * the requested page with the reviews DataLoader, so all shows of the same
+     * {@code _entities} call are resolved in a single batch. Resolver timings
+     * are published as metrics by the GraphQL instrumentation.
      *
-     * @param dfe Data fetching environment providing access to the parent Show object
-     * @return List of Review objects associated with the specified show
+     * @param first Page size
+     * @param after Cursor of the last review of the previous page
+     * @param sort  Order of the reviews
+     * @param dfe   Data fetching environment providing access to the parent Show object
+     * @return CompletableFuture of the connection page for the specified show
      */
     @DgsData(parentType = "Show") // Resolves the reviews field for Show type
-    public List<Review> reviews(DgsDataFetchingEnvironment dfe) {
+    public CompletableFuture<ReviewConnection> reviews(@InputArgument Integer first,
+                                                       @InputArgument String after,
+                                                       @InputArgument ReviewSort sort,
+                                                       DgsDataFetchingEnvironment dfe) {
         // Extract the parent Show object from the GraphQL execution context
         Show show = dfe.getSourceOrThrow();
+        ReviewPageRequest request = new ReviewPageRequest(show.showId(), sort, first, after);
+        reviewRepository.validate(request);
 
-        // Log the review fetch operation for monitoring and debugging
-        LOGGER.info("Get reviews for show {}", show.showId());
+        // Get the DataLoader batching review page lookups
+        DataLoader<ReviewPageRequest, ReviewConnection> dataLoader = dfe.getDataLoader(ReviewsDataLoader.class);
 
-        // Return mock review data specific to this show
-        // In production, this would query a database filtered by show ID
-        return List.of(new Review(5, "Great show " + show.showId()));
+        // Queue this page; the batch is dispatched once all entities have been visited
+        return dataLoader.load(request);
+    }
+
+    /**
+     * GraphQL field resolver for the averageScore field on Show objects.
+     * <p>
+     * The rating fields are served from aggregates maintained on write, so a
+     * row of 40+ shows costs one map lookup per show and never reads a review.
+     *
+     * @param dfe Data fetching environment providing access to the parent Show object
+     * @return Mean score, or null if the show has no reviews
+     */
+    @DgsData(parentType = "Show", field = "averageScore") // Resolves the averageScore field for Show type
+    public Double averageScore(DgsDataFetchingEnvironment dfe) {
+        return rating(dfe).average();
+    }
+
+    /**
+     * GraphQL field resolver for the reviewCount field on Show objects.
+     *
+     * @param dfe Data fetching environment providing access to the parent Show object
+     * @return Number of reviews of the show
+     */
+    @DgsData(parentType = "Show", field = "reviewCount") // Resolves the reviewCount field for Show type
+    public Integer reviewCount(DgsDataFetchingEnvironment dfe) {
+        return (int) Math.min(rating(dfe).count(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * GraphQL field resolver for the scoreHistogram field on Show objects.
+     *
+     * @param dfe Data fetching environment providing access to the parent Show object
+     * @return Review count for every score from 1 to 5, including empty ones
+     */
+    @DgsData(parentType = "Show", field = "scoreHistogram") // Resolves the scoreHistogram field for Show type
+    public List<ScoreCount> scoreHistogram(DgsDataFetchingEnvironment dfe) {
+        ShowRating rating = rating(dfe);
+        List<ScoreCount> histogram = new ArrayList<>(ShowRating.MAX_SCORE - ShowRating.MIN_SCORE + 1);
+        for (int score = ShowRating.MIN_SCORE; score <= ShowRating.MAX_SCORE; score++) {
+            histogram.add(new ScoreCount(score, (int) Math.min(rating.count(score), Integer.MAX_VALUE)));
+        }
+        return histogram;
+    }
+
+    private ShowRating rating(DgsDataFetchingEnvironment dfe) {
+        Show show = dfe.getSourceOrThrow();
+        return reviewRepository.rating(show.showId());
     }
 
     /**
@@ -80,6 +180,11 @@ public class DataFetcher {
      * This is crucial for federated GraphQL architectures where Show data might
      * be owned by one service (e.g., catalog service) but reviews are owned by
      * this service.
+     * <p>
+     * Entity construction is deliberately cheap and does no lookup: the costly
+     * part, the reviews, is batched across all representations by the reviews
+     * DataLoader. The framework returns the entities in the order of the
+     * representations.
      *
      * @param values Map containing the entity representation, typically including
      *               the showId and other identifying fields from the federated schema
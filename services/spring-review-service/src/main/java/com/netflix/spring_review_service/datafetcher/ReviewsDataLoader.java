@@ -0,0 +1,90 @@
+package com.netflix.spring_review_service.datafetcher;
+
+import com.netflix.graphql.dgs.DgsDataLoader;
+import com.netflix.spring_review_service.repository.ReviewPageRequest;
+import com.netflix.spring_review_service.repository.ReviewRepository;
+import com.netflix.spring_review_service.types.ReviewConnection;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.dataloader.MappedBatchLoader;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * DataLoader batching review page lookups by show and page arguments.
+ * <p>
+ * When the router resolves a lolomo page, every Show of the {@code _entities}
+ * call asks for its reviews. Instead of one repository lookup per show (the
+ * N+1 problem), all pages requested during the same execution are collected
+ * and loaded together. Batches larger than {@code reviews.dataloader.max-batch-size}
+ * are split into several repository calls to keep each lookup bounded.
+ */
+@DgsDataLoader // Registers this class as a DataLoader with the DGS framework
+public class ReviewsDataLoader implements MappedBatchLoader<ReviewPageRequest, ReviewConnection> {
+
+    /**
+     * Repository providing the reviews
+     */
+    private final ReviewRepository reviewRepository;
+
+    /**
+     * Maximum number of pages per repository call
+     */
+    private final int maxBatchSize;
+
+    /**
+     * Distribution of the number of keys per batch
+     */
+    private final DistributionSummary batchSize;
+
+    /**
+     * Constructor injection for the repository and batch settings.
+     *
+     * @param reviewRepository Repository providing the reviews
+     * @param maxBatchSize     Maximum number of pages per repository call
+     * @param meterRegistry    Registry receiving the batch size histogram
+     */
+    public ReviewsDataLoader(ReviewRepository reviewRepository,
+                             @Value("${reviews.dataloader.max-batch-size:100}") int maxBatchSize,
+                             MeterRegistry meterRegistry) {
+        this.reviewRepository = reviewRepository;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.batchSize = DistributionSummary.builder("graphql.dataloader.batch.size")
+                .description("Number of keys per DataLoader batch")
+                .tag("loader", "reviews")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads all requested review pages.
+     *
+     * @param keys Page requests collected during the current execution
+     * @return CompletionStage containing every request mapped to its page
+     */
+    @Override
+    public CompletionStage<Map<ReviewPageRequest, ReviewConnection>> load(Set<ReviewPageRequest> keys) {
+        batchSize.record(keys.size());
+
+        Map<ReviewPageRequest, ReviewConnection> reviews = new HashMap<>(keys.size());
+        List<ReviewPageRequest> chunk = new ArrayList<>(Math.min(keys.size(), maxBatchSize));
+        for (ReviewPageRequest request : keys) {
+            chunk.add(request);
+            if (chunk.size() == maxBatchSize) {
+                reviews.putAll(reviewRepository.reviewsByShow(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            reviews.putAll(reviewRepository.reviewsByShow(chunk));
+        }
+        return CompletableFuture.completedFuture(reviews);
+    }
+}
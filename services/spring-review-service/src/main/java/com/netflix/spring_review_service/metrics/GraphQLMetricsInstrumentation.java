@@ -0,0 +1,199 @@
+package com.netflix.spring_review_service.metrics;
+
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.FieldFetchingInstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationValidationParameters;
+import graphql.language.Document;
+import graphql.validation.ValidationError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.dataloader.DataLoaderRegistry;
+import org.dataloader.stats.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * GraphQL instrumentation publishing request, phase and resolver timings to Micrometer.
+ * <p>
+ * Metrics, all tagged with the operation as bounded by {@link OperationTags}:
+ * - subgraph.request: end-to-end execution time, tagged with the outcome
+ * - subgraph.phase: parse, validate and execute phase timings
+ * - subgraph.field: time of each non-trivial resolver, tagged with Type.field
+ * <p>
+ * DataLoader metrics, tagged with the DataLoader name and taken from the
+ * statistics of the request's DataLoaders once the request completes:
+ * - graphql.dataloader.loads: keys requested
+ * - graphql.dataloader.cache.hits: keys served from the DataLoader's request
+ *   cache without a batch load; divided by the loads this is the hit ratio
+ * <p>
+ * The names differ from Spring GraphQL's own graphql.* observation meters,
+ * which use other tag keys and could not share a name with these in Prometheus.
+ * <p>
+ * Request and phase timers cost a few timer updates per request and are always
+ * recorded. Resolver timers are recorded for a sampled fraction of requests,
+ * {@code graphql.metrics.field-sample-rate}, decided once per request.
+ */
+@Component // Registered with the GraphQL engine as an Instrumentation bean
+public class GraphQLMetricsInstrumentation extends SimplePerformantInstrumentation {
+
+    /**
+     * GraphQL context key holding the per-request sampling decision
+     */
+    private static final String SAMPLED = GraphQLMetricsInstrumentation.class.getName() + ".sampled";
+
+    /**
+     * Registry receiving the timers
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Bounds the operation tag values
+     */
+    private final OperationTags operationTags;
+
+    /**
+     * Fraction of requests whose resolvers are timed
+     */
+    private final double fieldSampleRate;
+
+    /**
+     * Load and cache hit counters per DataLoader name
+     */
+    private final Map<String, DataLoaderCounters> dataLoaderCounters = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor injection for the meter registry and sampling rate.
+     *
+     * @param meterRegistry   Registry receiving the timers
+     * @param operationTags   Bounds the operation tag values
+     * @param fieldSampleRate Fraction (0..1) of requests whose resolvers are timed
+     */
+    public GraphQLMetricsInstrumentation(MeterRegistry meterRegistry,
+                                         OperationTags operationTags,
+                                         @Value("${graphql.metrics.field-sample-rate:0.1}") double fieldSampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.operationTags = operationTags;
+        this.fieldSampleRate = fieldSampleRate;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters,
+                                                                  InstrumentationState state) {
+        boolean sampled = fieldSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < fieldSampleRate;
+        parameters.getGraphQLContext().put(SAMPLED, sampled);
+
+        String operation = operationName(parameters.getOperation());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) -> sample.stop(Timer.builder("subgraph.request")
+                .description("GraphQL request execution time")
+                .tag("operation", operation)
+                .tag("outcome", throwable == null && (result == null || result.getErrors().isEmpty()) ? "success" : "error")
+                .register(meterRegistry)));
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+                                                                        InstrumentationExecutionParameters parameters,
+                                                                        InstrumentationState state) {
+        // Every request has its own DataLoaders, so their statistics cover just this request
+        DataLoaderRegistry registry = parameters.getExecutionInput().getDataLoaderRegistry();
+        if (registry != null) {
+            registry.getDataLoadersMap().forEach((name, dataLoader) -> {
+                Statistics statistics = dataLoader.getStatistics();
+                if (statistics.getLoadCount() > 0) {
+                    DataLoaderCounters counters = dataLoaderCounters.computeIfAbsent(name, this::dataLoaderCounters);
+                    counters.loads().increment(statistics.getLoadCount());
+                    counters.cacheHits().increment(statistics.getCacheHitCount());
+                }
+            });
+        }
+        return super.instrumentExecutionResult(executionResult, parameters, state);
+    }
+
+    @Override
+    public InstrumentationContext<Document> beginParse(InstrumentationExecutionParameters parameters,
+                                                       InstrumentationState state) {
+        return phase("parse", parameters.getOperation());
+    }
+
+    @Override
+    public InstrumentationContext<List<ValidationError>> beginValidation(InstrumentationValidationParameters parameters,
+                                                                         InstrumentationState state) {
+        return phase("validate", parameters.getOperation());
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        return phase("execute", parameters.getExecutionContext().getExecutionInput().getOperationName());
+    }
+
+    @Override
+    public FieldFetchingInstrumentationContext beginFieldFetching(InstrumentationFieldFetchParameters parameters,
+                                                                  InstrumentationState state) {
+        // Property reads are not worth a timer; only time real resolvers of sampled requests
+        if (parameters.isTrivialDataFetcher()
+                || !Boolean.TRUE.equals(parameters.getExecutionContext().getGraphQLContext().get(SAMPLED))) {
+            return FieldFetchingInstrumentationContext.NOOP;
+        }
+
+        String field = parameters.getExecutionStepInfo().getObjectType().getName() + "." + parameters.getField().getName();
+        String operation = operationName(parameters.getExecutionContext().getExecutionInput().getOperationName());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return FieldFetchingInstrumentationContext.adapter(SimpleInstrumentationContext.whenCompleted(
+                (value, throwable) -> sample.stop(Timer.builder("subgraph.field")
+                        .description("GraphQL resolver time, including asynchronous completion")
+                        .tag("field", field)
+                        .tag("operation", operation)
+                        .register(meterRegistry))));
+    }
+
+    /**
+     * Times a request phase.
+     */
+    private <T> InstrumentationContext<T> phase(String phase, String operationName) {
+        String operation = operationName(operationName);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return SimpleInstrumentationContext.whenCompleted((value, throwable) -> sample.stop(Timer.builder("subgraph.phase")
+                .description("GraphQL parse, validate and execute phase time")
+                .tag("phase", phase)
+                .tag("operation", operation)
+                .register(meterRegistry)));
+    }
+
+    private DataLoaderCounters dataLoaderCounters(String name) {
+        return new DataLoaderCounters(
+                Counter.builder("graphql.dataloader.loads")
+                        .description("Keys requested from a DataLoader")
+                        .tag("loader", name)
+                        .register(meterRegistry),
+                Counter.builder("graphql.dataloader.cache.hits")
+                        .description("Keys served from a DataLoader's request cache")
+                        .tag("loader", name)
+                        .register(meterRegistry));
+    }
+
+    private String operationName(String operationName) {
+        return operationTags.tag(operationName);
+    }
+
+    /**
+     * Counters of one DataLoader.
+     */
+    private record DataLoaderCounters(Counter loads, Counter cacheHits) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.netflix.spring_review_service.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bounds the values of the "operation" tag of the GraphQL meters.
+ * <p>
+ * Operation names are chosen by clients. Tagging meters with them as sent
+ * would let any client create new time series at will, so only the names
+ * listed in {@code graphql.metrics.operations} are kept as tag values.
+ * Operations sent without a name are tagged "anonymous", every other name "other".
+ */
+@Component // Spring component annotation for dependency injection
+public class OperationTags {
+
+    /**
+     * Tag value used for operations sent without a name
+     */
+    public static final String ANONYMOUS = "anonymous";
+
+    /**
+     * Tag value used for operation names that are not listed
+     */
+    public static final String OTHER = "other";
+
+    /**
+     * Operation names used as tag values as they are
+     */
+    private final Set<String> operations;
+
+    /**
+     * Constructor injection for the known operation names.
+     *
+     * @param operations Operation names tagged as they are
+     */
+    public OperationTags(@Value("${graphql.metrics.operations:}") List<String> operations) {
+        this.operations = Set.copyOf(operations.stream().map(String::trim).filter(name -> !name.isEmpty()).toList());
+    }
+
+    /**
+     * Returns the tag value of an operation.
+     *
+     * @param operationName Operation name sent by the client, may be null
+     * @return The name if it is listed, "anonymous" without a name, "other" otherwise
+     */
+    public String tag(String operationName) {
+        if (operationName == null || operationName.isBlank()) {
+            return ANONYMOUS;
+        }
+        return operations.contains(operationName) ? operationName : OTHER;
+    }
+}
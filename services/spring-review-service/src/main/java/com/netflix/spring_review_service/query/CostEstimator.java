@@ -0,0 +1,203 @@
+package com.netflix.spring_review_service.query;
+
+import graphql.normalized.ExecutableNormalizedField;
+import graphql.normalized.ExecutableNormalizedOperation;
+import graphql.schema.GraphQLAppliedDirective;
+import graphql.schema.GraphQLAppliedDirectiveArgument;
+import graphql.schema.GraphQLCompositeType;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLTypeUtil;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates the cost, depth and field count of a normalized operation.
+ * <p>
+ * The estimate walks the normalized operation, so aliases and fragments are
+ * counted as often as they will be resolved:
+ * - a field costs its {@code @cost(weight:)}, 0 by default
+ * - every object it returns costs the object cost plus its selections
+ * - a list field multiplies that by its estimated size: the value of a
+ *   {@code @listSize(slicingArguments:)} argument, capped at the page size
+ *   limit of the resolvers; otherwise {@code @listSize(assumedSize:)};
+ *   otherwise the default list size
+ * - {@code _entities} is sized by the number of representations the router
+ *   sends, so a federated query pays for every entity it resolves
+ * - every other top-level list field is passed to the service's
+ *   {@link ListBound}, which may bound it by what the service can return
+ * <p>
+ * Introspection fields are free and not counted.
+ */
+final class CostEstimator {
+
+    /**
+     * Schema directive overriding the weight of a field
+     */
+    static final String COST = "cost";
+
+    /**
+     * Schema directive describing the size of a list field
+     */
+    private static final String LIST_SIZE = "listSize";
+
+    private final long objectCost;
+    private final long defaultListSize;
+
+    /**
+     * Upper bound the resolvers apply to page sizes
+     */
+    private final long maxPageSize;
+
+    /**
+     * Service specific bound of top-level list fields
+     */
+    private final ListBound listBound;
+
+    /**
+     * Bounds the estimated size of a top-level list field.
+     */
+    @FunctionalInterface
+    interface ListBound {
+
+        /**
+         * Keeps every estimate as it is
+         */
+        ListBound NONE = (field, size) -> size;
+
+        /**
+         * @param field Top-level list field
+         * @param size  Size estimated from the schema directives
+         * @return Size to estimate the field with
+         */
+        long bound(ExecutableNormalizedField field, long size);
+    }
+
+    /**
+     * @param objectCost      Cost of every object returned
+     * @param defaultListSize Assumed size of lists without a {@code @listSize}
+     * @param maxPageSize     Page size limit of the resolvers
+     * @param listBound       Service specific bound of top-level list fields
+     */
+    CostEstimator(long objectCost, long defaultListSize, long maxPageSize, ListBound listBound) {
+        this.objectCost = objectCost;
+        this.defaultListSize = defaultListSize;
+        this.maxPageSize = maxPageSize;
+        this.listBound = listBound;
+    }
+
+    /**
+     * Estimates an operation.
+     *
+     * @param operation Normalized operation
+     * @param schema    Schema holding the cost directives
+     * @return Cost, depth and field count of the operation
+     */
+    Estimate estimate(ExecutableNormalizedOperation operation, GraphQLSchema schema) {
+        Estimate estimate = new Estimate();
+        for (ExecutableNormalizedField field : operation.getTopLevelFields()) {
+            estimate.cost += cost(field, schema, null, estimate);
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimates the cost of a field and its selections, tracking depth and field count.
+     *
+     * @param sizedBy Size given by the parent's {@code @listSize(sizedFields:)}, or null
+     */
+    private long cost(ExecutableNormalizedField field, GraphQLSchema schema, Long sizedBy, Estimate estimate) {
+        if (field.getName().startsWith("__")) {
+            return 0;
+        }
+        estimate.fields++;
+        estimate.depth = Math.max(estimate.depth, field.getLevel());
+
+        GraphQLFieldDefinition definition = field.getOneFieldDefinition(schema);
+        GraphQLAppliedDirective listSize = definition.getAppliedDirective(LIST_SIZE);
+        long weight = intArgument(definition.getAppliedDirective(COST), "weight", 0);
+        boolean list = GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(definition.getType()));
+        boolean composite = GraphQLTypeUtil.unwrapAll(definition.getType()) instanceof GraphQLCompositeType;
+
+        long size = sizedBy != null ? sizedBy : list ? listSize(field, listSize) : 1;
+        if (list && field.getParent() == null) {
+            size = "_entities".equals(field.getName())
+                    && field.getResolvedArguments().get("representations") instanceof List<?> representations
+                    ? representations.size()
+                    : listBound.bound(field, size);
+        }
+
+        long slice = listSize == null ? 1 : slicedSize(field, listSize);
+        List<String> sizedFields = stringsArgument(listSize, "sizedFields");
+        long selections = 0;
+        for (ExecutableNormalizedField child : field.getChildren()) {
+            Long childSize = sizedFields.contains(child.getName()) ? slice : null;
+            selections += cost(child, schema, childSize, estimate);
+        }
+        return weight + size * ((composite ? objectCost : 0) + selections);
+    }
+
+    /**
+     * Estimated size of a list field.
+     */
+    private long listSize(ExecutableNormalizedField field, GraphQLAppliedDirective listSize) {
+        if (listSize == null) {
+            return defaultListSize;
+        }
+        if (!stringsArgument(listSize, "sizedFields").isEmpty()) {
+            // The list is inside the returned object, this field returns one connection
+            return 1;
+        }
+        return slicedSize(field, listSize);
+    }
+
+    /**
+     * Size given by the slicing arguments of a {@code @listSize}, capped like the
+     * resolvers cap page sizes, or its assumed size when none is set.
+     */
+    private long slicedSize(ExecutableNormalizedField field, GraphQLAppliedDirective listSize) {
+        List<String> slicingArguments = stringsArgument(listSize, "slicingArguments");
+        for (String argument : slicingArguments) {
+            if (field.getResolvedArguments().get(argument) instanceof Number requested) {
+                return Math.max(0, Math.min(requested.longValue(), maxPageSize));
+            }
+        }
+        long assumed = intArgument(listSize, "assumedSize", -1);
+        if (assumed >= 0) {
+            return assumed;
+        }
+        // Resolvers return a full page when no size is requested
+        return slicingArguments.isEmpty() ? defaultListSize : maxPageSize;
+    }
+
+    private static long intArgument(GraphQLAppliedDirective directive, String name, long defaultValue) {
+        GraphQLAppliedDirectiveArgument argument = directive == null ? null : directive.getArgument(name);
+        return argument != null && argument.getValue() instanceof Number value ? value.longValue() : defaultValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> stringsArgument(GraphQLAppliedDirective directive, String name) {
+        GraphQLAppliedDirectiveArgument argument = directive == null ? null : directive.getArgument(name);
+        return argument != null && argument.getValue() instanceof List<?> values ? (List<String>) values : List.of();
+    }
+
+    /**
+     * Cost, depth and field count of one operation.
+     */
+    static final class Estimate {
+        long cost;
+        int depth;
+        int fields;
+
+        Map<String, Object> toMap(long maxCost) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("estimated", cost);
+            map.put("maximum", maxCost);
+            map.put("depth", depth);
+            map.put("fields", fields);
+            return map;
+        }
+    }
+}
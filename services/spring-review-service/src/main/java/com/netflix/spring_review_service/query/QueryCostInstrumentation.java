@@ -0,0 +1,173 @@
+package com.netflix.spring_review_service.query;
+
+import com.netflix.spring_review_service.metrics.OperationTags;
+import com.netflix.spring_review_service.query.CostEstimator.Estimate;
+import graphql.ExecutionResult;
+import graphql.GraphQLContext;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.normalized.ExecutableNormalizedOperation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates the cost of every operation before it executes and rejects
+ * operations over budget.
+ * <p>
+ * The estimate is made by a {@link CostEstimator}, with every object costing
+ * {@code graphql.cost.object-cost}, lists without {@code @listSize} assumed
+ * to hold {@code graphql.cost.default-list-size} entries and page sizes capped
+ * at the review page limit like the resolvers do. A federated query pays for
+ * every show the router sends in {@code _entities}, so the default budget is
+ * sized for a full lolomo page of shows with a few reviews each.
+ * <p>
+ * An operation is rejected when its cost exceeds {@code graphql.cost.max-cost},
+ * its depth {@code graphql.cost.max-depth} or its number of fields
+ * {@code graphql.cost.max-fields}. Introspection fields are free and not limited.
+ * The estimate is returned in the "cost" response extension, or in the error
+ * extensions of a rejected operation.
+ * <p>
+ * Metrics, all tagged with the operation as bounded by {@link OperationTags}:
+ * - graphql.query.cost: estimated cost of every operation
+ * - graphql.query.rejected: operations rejected, tagged with the exceeded limit
+ */
+@Component // Registered with the GraphQL engine as an Instrumentation bean
+public class QueryCostInstrumentation extends SimplePerformantInstrumentation {
+
+    /**
+     * GraphQL context key holding the estimate of the current operation
+     */
+    private static final String ESTIMATE = QueryCostInstrumentation.class.getName() + ".estimate";
+
+    /**
+     * Registry receiving the cost metrics
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Bounds the operation tag values
+     */
+    private final OperationTags operationTags;
+
+    private final long maxCost;
+    private final int maxDepth;
+    private final int maxFields;
+
+    /**
+     * Estimates operations
+     */
+    private final CostEstimator estimator;
+
+    /**
+     * Cost distribution per operation tag, so requests don't rebuild their meters
+     */
+    private final Map<String, DistributionSummary> costs = new ConcurrentHashMap<>();
+
+    /**
+     * Rejection counter per operation tag and exceeded limit
+     */
+    private final Map<List<String>, Counter> rejections = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor injection for the meter registry, operation tags and budgets.
+     *
+     * @param meterRegistry   Registry receiving the cost metrics
+     * @param operationTags   Bounds the operation tag values
+     * @param maxCost         Maximum estimated cost of an operation
+     * @param maxDepth        Maximum depth of an operation
+     * @param maxFields       Maximum number of fields of an operation, aliases included
+     * @param objectCost      Cost of every object returned
+     * @param defaultListSize Assumed size of lists without a {@code @listSize}
+     * @param maxPageSize     Page size limit of the resolvers
+     */
+    public QueryCostInstrumentation(MeterRegistry meterRegistry,
+                                    OperationTags operationTags,
+                                    @Value("${graphql.cost.max-cost:20000}") long maxCost,
+                                    @Value("${graphql.cost.max-depth:10}") int maxDepth,
+                                    @Value("${graphql.cost.max-fields:200}") int maxFields,
+                                    @Value("${graphql.cost.object-cost:1}") long objectCost,
+                                    @Value("${graphql.cost.default-list-size:10}") long defaultListSize,
+                                    @Value("${reviews.max-results:50}") long maxPageSize) {
+        this.meterRegistry = meterRegistry;
+        this.operationTags = operationTags;
+        this.maxCost = maxCost;
+        this.maxDepth = maxDepth;
+        this.maxFields = maxFields;
+        this.estimator = new CostEstimator(objectCost, defaultListSize, maxPageSize, CostEstimator.ListBound.NONE);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        ExecutionContext executionContext = parameters.getExecutionContext();
+        String operation = operationName(executionContext.getExecutionInput().getOperationName());
+
+        // Shared with every later user of the normalized operation in this request
+        ExecutableNormalizedOperation normalized = executionContext.getNormalizedQueryTree().get();
+        Estimate estimate = estimator.estimate(normalized, executionContext.getGraphQLSchema());
+        executionContext.getGraphQLContext().put(ESTIMATE, estimate);
+
+        costs.computeIfAbsent(operation, tag -> DistributionSummary.builder("graphql.query.cost")
+                        .description("Estimated cost of GraphQL operations")
+                        .tag("operation", tag)
+                        .register(meterRegistry))
+                .record(estimate.cost);
+
+        if (estimate.cost > maxCost) {
+            throw reject(operation, "cost", "Operation cost " + estimate.cost + " exceeds the maximum of " + maxCost, estimate);
+        }
+        if (estimate.depth > maxDepth) {
+            throw reject(operation, "depth", "Operation depth " + estimate.depth + " exceeds the maximum of " + maxDepth, estimate);
+        }
+        if (estimate.fields > maxFields) {
+            throw reject(operation, "fields", "Operation selects " + estimate.fields + " fields, more than the maximum of " + maxFields, estimate);
+        }
+        return super.beginExecuteOperation(parameters, state);
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+                                                                        InstrumentationExecutionParameters parameters,
+                                                                        InstrumentationState state) {
+        GraphQLContext context = parameters.getGraphQLContext();
+        Estimate estimate = context == null ? null : context.get(ESTIMATE);
+        if (estimate == null) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        return CompletableFuture.completedFuture(executionResult.transform(builder ->
+                builder.addExtension(CostEstimator.COST, estimate.toMap(maxCost))));
+    }
+
+    private AbortExecutionException reject(String operation, String limit, String message, Estimate estimate) {
+        rejections.computeIfAbsent(List.of(operation, limit), tags -> Counter.builder("graphql.query.rejected")
+                        .description("GraphQL operations rejected for exceeding a cost limit")
+                        .tag("operation", operation)
+                        .tag("limit", limit)
+                        .register(meterRegistry))
+                .increment();
+        GraphQLError error = GraphqlErrorBuilder.newError()
+                .message(message)
+                .extensions(Map.of("classification", "QueryTooExpensive", CostEstimator.COST, estimate.toMap(maxCost)))
+                .build();
+        return new AbortExecutionException(List.of(error));
+    }
+
+    private String operationName(String operationName) {
+        return operationTags.tag(operationName);
+    }
+}
@@ -0,0 +1,80 @@
+package com.netflix.spring_review_service.repository;
+
+import com.netflix.spring_review_service.store.ReviewStore;
+import com.netflix.spring_review_service.store.ShowRating;
+import com.netflix.spring_review_service.types.ReviewSort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes store scan positions as opaque connection cursors.
+ * <p>
+ * A cursor is the URL-safe Base64 form of "listing:position". The listing
+ * name ties a cursor to the order it was issued for, so a cursor from a
+ * newest-first page can't be replayed against a highest-score listing.
+ * <p>
+ * Cursors come from clients, so a decoded position is checked against the
+ * positions the store can issue: an index that fits an int in the low bits
+ * and, for the highest-score listing only, a score bucket in the high bits.
+ */
+final class ReviewCursor {
+
+    private ReviewCursor() {
+    }
+
+    /**
+     * Encodes a position.
+     *
+     * @param listing  Name of the listing the position belongs to
+     * @param position Store scan position
+     * @return Opaque cursor
+     */
+    static String encode(String listing, long position) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((listing + ":" + position).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor issued for a listing.
+     *
+     * @param cursor  Cursor from a previous page, or null for the first page
+     * @param listing Name of the listing being paged
+     * @return Store scan position, {@link ReviewStore#START} for a null cursor
+     * @throws IllegalArgumentException if the cursor is malformed or belongs to another listing
+     */
+    static long decode(String cursor, String listing) {
+        if (cursor == null) {
+            return ReviewStore.START;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(':');
+            if (separator > 0 && decoded.substring(0, separator).equals(listing)) {
+                long position = Long.parseLong(decoded.substring(separator + 1));
+                if (position >= 0 && valid(position, listing)) {
+                    return position;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Falls through to the error below; NumberFormatException is an IllegalArgumentException
+        }
+        throw new IllegalArgumentException("Invalid cursor for " + listing + ": " + cursor);
+    }
+
+    /**
+     * Checks a non-negative position against the layout of the listing's positions.
+     */
+    private static boolean valid(long position, String listing) {
+        long bucket = position >>> 32;
+        long index = position & 0xFFFF_FFFFL;
+        if (index > Integer.MAX_VALUE) {
+            return false;
+        }
+        // Highest score positions carry the score bucket + 1 in the high bits
+        long maxBucket = ReviewSort.HIGHEST_SCORE.name().equals(listing)
+                ? ShowRating.MAX_SCORE - ShowRating.MIN_SCORE + 1
+                : 0;
+        return bucket <= maxBucket;
+    }
+}
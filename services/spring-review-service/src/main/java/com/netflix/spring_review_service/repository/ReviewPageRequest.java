@@ -0,0 +1,17 @@
+package com.netflix.spring_review_service.repository;
+
+import com.netflix.spring_review_service.types.ReviewSort;
+
+/**
+ * One page of a show's reviews, as requested by a Show.reviews field.
+ * <p>
+ * Used as DataLoader key, so fields with equal arguments on the same show
+ * share one lookup.
+ *
+ * @param showId Id of the show
+ * @param sort   Order of the listing
+ * @param first  Requested page size, or null for the default
+ * @param after  Cursor of the last review of the previous page, or null
+ */
+public record ReviewPageRequest(Integer showId, ReviewSort sort, Integer first, String after) {
+}
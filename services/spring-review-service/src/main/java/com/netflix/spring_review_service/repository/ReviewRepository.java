@@ -0,0 +1,226 @@
+package com.netflix.spring_review_service.repository;
+
+import com.netflix.spring_review_service.store.GroupCommitWriter;
+import com.netflix.spring_review_service.store.RatingAggregates;
+import com.netflix.spring_review_service.store.ReviewStore;
+import com.netflix.spring_review_service.store.ShowRating;
+import com.netflix.spring_review_service.subscription.ReviewFanout;
+import com.netflix.spring_review_service.types.PageInfo;
+import com.netflix.spring_review_service.types.Review;
+import com.netflix.spring_review_service.types.ReviewConnection;
+import com.netflix.spring_review_service.types.ReviewEdge;
+import com.netflix.spring_review_service.types.ReviewSort;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Repository component providing access to reviews.
+ * <p>
+ * Reviews are looked up for many shows at once so that a federated request
+ * covering a whole lolomo page costs a single repository call instead of one
+ * call per show. Review lists are Relay-style connections: a page only reads
+ * its own records, however many reviews a show has, and the next page resumes
+ * from the opaque cursor of the last one. Reviews are persisted in the embedded
+ * {@link ReviewStore}; an empty store is seeded with a few sample reviews for
+ * demonstration purposes.
+ */
+@Component // Spring component annotation for dependency injection
+public class ReviewRepository {
+
+    /**
+     * Listing name of recentReviews cursors
+     */
+    private static final String RECENT = "RECENT";
+
+    /**
+     * Log-structured store holding the reviews
+     */
+    private final ReviewStore reviewStore;
+
+    /**
+     * Batching writer committing new reviews to the store
+     */
+    private final GroupCommitWriter writer;
+
+    /**
+     * Per-show rating aggregates
+     */
+    private final RatingAggregates ratingAggregates;
+
+    /**
+     * Fan-out of committed reviews to live subscribers
+     */
+    private final ReviewFanout reviewFanout;
+
+    /**
+     * Maximum number of reviews per page
+     */
+    private final int maxReviews;
+
+    /**
+     * Whether an empty store is seeded with sample reviews
+     */
+    private final boolean seed;
+
+    /**
+     * Constructor injection for the store and read settings.
+     *
+     * @param reviewStore Store holding the reviews
+     * @param writer      Batching writer for new reviews
+     * @param ratings     Per-show rating aggregates
+     * @param fanout      Fan-out of committed reviews to subscribers
+     * @param maxReviews  Maximum number of reviews per page
+     * @param seed        Whether to seed an empty store with sample reviews
+     */
+    public ReviewRepository(ReviewStore reviewStore,
+                            GroupCommitWriter writer,
+                            RatingAggregates ratings,
+                            ReviewFanout fanout,
+                            @Value("${reviews.max-results:50}") int maxReviews,
+                            @Value("${reviews.store.seed:true}") boolean seed) {
+        this.reviewStore = reviewStore;
+        this.writer = writer;
+        this.ratingAggregates = ratings;
+        this.reviewFanout = fanout;
+        this.maxReviews = Math.max(1, maxReviews);
+        this.seed = seed;
+    }
+
+    /**
+     * Writes the sample reviews into an empty store.
+     */
+    @PostConstruct // Executed after dependency injection, before bean is ready for use
+    public void seed() {
+        if (seed && reviewStore.size() == 0) {
+            reviewStore.append(1, 5, "Great show");
+            reviewStore.append(2, 1, "Not enough commercials");
+            reviewStore.append(3, 3, "Too scary");
+            reviewStore.flush();
+        }
+    }
+
+    /**
+     * Returns one page of the most recent reviews across all shows.
+     *
+     * @param first Page size, capped at the configured maximum; null for the maximum
+     * @param after Cursor of the last review of the previous page, or null
+     * @return Connection page of Review objects with associated Show information, newest first
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    public ReviewConnection recentReviews(Integer first, String after) {
+        long position = ReviewCursor.decode(after, RECENT);
+        return page(RECENT, pageSize(first), reviewStore.size(),
+                visitor -> reviewStore.scanAll(position, visitor));
+    }
+
+    /**
+     * Returns pages of reviews for several shows in one call.
+     *
+     * @param requests Pages to fetch
+     * @return Every request mapped to its page
+     * @throws IllegalArgumentException if a cursor is invalid
+     */
+    public Map<ReviewPageRequest, ReviewConnection> reviewsByShow(Collection<ReviewPageRequest> requests) {
+        Map<ReviewPageRequest, ReviewConnection> pages = new HashMap<>(requests.size());
+
+        // Each page is one index lookup followed by reads of only its records from the mapped segments
+        for (ReviewPageRequest request : requests) {
+            ReviewSort sort = request.sort() == null ? ReviewSort.NEWEST : request.sort();
+            long position = ReviewCursor.decode(request.after(), sort.name());
+            pages.put(request, page(sort.name(), pageSize(request.first()), reviewStore.count(request.showId()),
+                    visitor -> reviewStore.scan(request.showId(), sort, position, visitor)));
+        }
+        return pages;
+    }
+
+    /**
+     * Checks the cursor of a page request before it joins a batch, so an
+     * invalid cursor fails only its own field.
+     *
+     * @param request Page request
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    public void validate(ReviewPageRequest request) {
+        ReviewCursor.decode(request.after(), (request.sort() == null ? ReviewSort.NEWEST : request.sort()).name());
+    }
+
+    /**
+     * Collects one page from a positioned scan. The scan stops one record past
+     * the page, which is only inspected to set hasNextPage.
+     */
+    private static ReviewConnection page(String listing, int size, int totalCount,
+                                         Consumer<ReviewStore.Visitor> scan) {
+        List<ReviewEdge> edges = new ArrayList<>(Math.min(size, totalCount));
+        boolean[] hasNextPage = new boolean[1];
+        scan.accept((record, position) -> {
+            if (edges.size() == size) {
+                hasNextPage[0] = true;
+                return false;
+            }
+            edges.add(new ReviewEdge(ReviewCursor.encode(listing, position), record.toReview()));
+            return true;
+        });
+
+        String endCursor = edges.isEmpty() ? null : edges.getLast().cursor();
+        return new ReviewConnection(edges, new PageInfo(hasNextPage[0], endCursor), totalCount);
+    }
+
+    private int pageSize(Integer first) {
+        return first == null ? maxReviews : Math.clamp(first, 0, maxReviews);
+    }
+
+    /**
+     * Stores a new review.
+     * <p>
+     * The write joins the next group commit; the returned future completes once
+     * the review has been forced to disk together with the rest of its batch,
+     * and only then is it announced to live subscribers.
+     *
+     * @param showId Id of the reviewed show
+     * @param score  Score from 1 to 5
+     * @param text   Review text
+     * @return Future completing with the stored review once it is durable; fails if
+     * the text exceeds {@link ReviewStore#MAX_TEXT_BYTES} bytes
+     * @throws IllegalArgumentException if the score is out of range
+     */
+    public CompletableFuture<Review> addReview(int showId, int score, String text) {
+        if (score < 1 || score > 5) {
+            throw new IllegalArgumentException("score must be between 1 and 5");
+        }
+        return writer.submit(showId, score, text).whenComplete((review, error) -> {
+            if (review != null) {
+                reviewFanout.publish(review);
+            }
+        });
+    }
+
+    /**
+     * Returns the reviews of a show as they are committed.
+     *
+     * @param showId Id of the show
+     * @return Live reviews; a client reading too slowly skips to the latest ones
+     */
+    public Flux<Review> liveReviews(int showId) {
+        return reviewFanout.subscribe(showId);
+    }
+
+    /**
+     * Returns the rating aggregate of a show without reading any review.
+     *
+     * @param showId Id of the show
+     * @return The show's rating
+     */
+    public ShowRating rating(int showId) {
+        return ratingAggregates.rating(showId);
+    }
+}
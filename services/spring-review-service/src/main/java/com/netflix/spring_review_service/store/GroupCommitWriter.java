@@ -0,0 +1,308 @@
+package com.netflix.spring_review_service.store;
+
+import com.netflix.spring_review_service.types.Review;
+import com.netflix.spring_review_service.types.Show;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batches review writes so that many of them share one fsync.
+ * <p>
+ * Callers on any number of (virtual) threads enqueue writes and get a future.
+ * A single writer thread takes the first pending write, then keeps collecting
+ * until {@code reviews.writer.max-batch-size} writes are queued or
+ * {@code reviews.writer.max-delay} has passed, appends the whole batch to the
+ * {@link ReviewStore} and forces it to disk once. Only then are the futures of
+ * that batch completed, so an acknowledged review is always durable. A larger
+ * batch or delay raises throughput at the cost of commit latency.
+ * <p>
+ * Futures are completed on virtual threads, never on the writer thread, so the
+ * GraphQL work continuing from them doesn't delay the next batch.
+ * <p>
+ * A failed fsync is fatal. The batch was already appended to the mapped
+ * segment, indexed and counted, and the kernel may have dropped its dirty
+ * pages, so a later fsync succeeding would prove nothing about it. Retrying
+ * could then store a review twice. Instead the writer stops: the batch and
+ * every queued write fail, and every later write is rejected with
+ * {@link IllegalStateException} until the service is restarted and recovers
+ * the log. Reviews of the failed batch may be visible to readers until then,
+ * and may or may not survive the restart.
+ * <p>
+ * Metrics:
+ * - reviews.writes: committed reviews, for write throughput
+ * - reviews.commit.batch.size: reviews per group commit
+ * - reviews.commit.latency: time from enqueue to durable, as seen by the caller
+ * - reviews.commit.fsync: time to force a batch to disk
+ * - reviews.writer.queue: writes waiting for the writer thread
+ */
+@Component // Spring component annotation for dependency injection
+public class GroupCommitWriter {
+
+    /**
+     * Logger instance for commit failures
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(GroupCommitWriter.class);
+
+    /**
+     * Store receiving the reviews
+     */
+    private final ReviewStore reviewStore;
+
+    /**
+     * Maximum number of writes per group commit
+     */
+    private final int maxBatchSize;
+
+    /**
+     * Maximum time the first write of a batch waits for more writes
+     */
+    private final long maxDelayNanos;
+
+    /**
+     * Writes waiting for the writer thread
+     */
+    private final BlockingQueue<PendingWrite> queue;
+
+    /**
+     * Completes the futures of a committed batch
+     */
+    private final ExecutorService completions = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Counter writes;
+    private final DistributionSummary batchSize;
+    private final Timer commitLatency;
+    private final Timer fsync;
+
+    /**
+     * Thread appending and committing batches
+     */
+    private Thread writerThread;
+
+    /**
+     * Cleared on shutdown; the writer drains the queue before it exits
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Set when an fsync failed; the writer then rejects every write
+     */
+    private volatile IllegalStateException failure;
+
+    /**
+     * Constructor injection for the store, meter registry and batching settings.
+     *
+     * @param reviewStore   Store receiving the reviews
+     * @param meterRegistry Registry receiving the writer metrics
+     * @param maxBatchSize  Maximum number of writes per group commit
+     * @param maxDelay      Maximum time a write waits for its batch to fill
+     * @param queueCapacity Maximum number of queued writes before new ones are rejected
+     */
+    public GroupCommitWriter(ReviewStore reviewStore,
+                             MeterRegistry meterRegistry,
+                             @Value("${reviews.writer.max-batch-size:1024}") int maxBatchSize,
+                             @Value("${reviews.writer.max-delay:2ms}") Duration maxDelay,
+                             @Value("${reviews.writer.queue-capacity:65536}") int queueCapacity) {
+        this.reviewStore = reviewStore;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+
+        this.writes = Counter.builder("reviews.writes")
+                .description("Reviews committed to the store")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("reviews.commit.batch.size")
+                .description("Reviews per group commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.commitLatency = Timer.builder("reviews.commit.latency")
+                .description("Time from enqueueing a review until it is durable")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.fsync = Timer.builder("reviews.commit.fsync")
+                .description("Time to force a batch of reviews to disk")
+                .register(meterRegistry);
+        Gauge.builder("reviews.writer.queue", queue, BlockingQueue::size)
+                .description("Reviews waiting for the writer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    @PostConstruct
+    public void start() {
+        writerThread = Thread.ofPlatform()
+                .name("review-writer")
+                .daemon()
+                .start(this::run);
+    }
+
+    /**
+     * Commits the queued writes and stops the writer thread.
+     *
+     * @throws InterruptedException if interrupted while waiting for the writer
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+
+        // Writes that raced with shutdown
+        List<PendingWrite> rejected = new ArrayList<>();
+        queue.drainTo(rejected);
+        rejected.forEach(write -> write.future().completeExceptionally(shutDown()));
+        completions.shutdown();
+    }
+
+    /**
+     * Queues a review for the next group commit.
+     *
+     * @param showId Id of the reviewed show
+     * @param score  Review score
+     * @param text   Review text
+     * @return Future completing with the review once it is durable, or exceptionally
+     * if it is invalid, the queue is full, the writer is shut down, the commit fails or an
+     * earlier commit failed
+     */
+    public CompletableFuture<Review> submit(int showId, int score, String text) {
+        PendingWrite write = new PendingWrite(showId, score, text, System.nanoTime(), new CompletableFuture<>());
+        IllegalStateException failed = failure;
+        if (failed != null) {
+            write.future().completeExceptionally(failed);
+        } else if (!running) {
+            write.future().completeExceptionally(shutDown());
+        } else if (!queue.offer(write)) {
+            write.future().completeExceptionally(new RejectedExecutionException("Review write queue is full"));
+        } else if ((failure != null || !running) && queue.remove(write)) {
+            // A failure or stop() may have drained the queue before the write was offered
+            failed = failure;
+            write.future().completeExceptionally(failed != null ? failed : shutDown());
+        }
+        return write.future();
+    }
+
+    /**
+     * Writer loop: collect a batch on size or time, then commit it.
+     */
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = first.enqueuedAt() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                IllegalStateException failed = failure;
+                if (failed != null) {
+                    // Queued after the failed commit drained the queue; never append past a failed fsync
+                    reject(batch, failed);
+                } else {
+                    commit(batch);
+                }
+            } catch (InterruptedException e) {
+                // Only stop() ends the loop, after the queue is drained
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Appends a batch, forces it to disk and completes its futures.
+     */
+    private void commit(List<PendingWrite> batch) {
+        List<PendingWrite> appended = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            try {
+                reviewStore.append(write.showId(), write.score(), write.text());
+                appended.add(write);
+            } catch (RuntimeException e) {
+                // Invalid reviews fail alone and don't hold back the batch
+                completions.execute(() -> write.future().completeExceptionally(e));
+            }
+        }
+        if (appended.isEmpty()) {
+            return;
+        }
+
+        try {
+            fsync.record(reviewStore::flush);
+        } catch (RuntimeException e) {
+            LOGGER.error("Group commit of {} reviews failed, rejecting all further writes", appended.size(), e);
+            fail(appended, e);
+            return;
+        }
+
+        long now = System.nanoTime();
+        writes.increment(appended.size());
+        batchSize.record(appended.size());
+        for (PendingWrite write : appended) {
+            commitLatency.record(now - write.enqueuedAt(), TimeUnit.NANOSECONDS);
+            Review review = new Review(write.score(), write.text(), new Show(write.showId(), null));
+            completions.execute(() -> write.future().complete(review));
+        }
+    }
+
+    /**
+     * Stops the writer after a failed fsync, failing the batch and every queued write.
+     */
+    private void fail(List<PendingWrite> batch, RuntimeException cause) {
+        IllegalStateException failed = new IllegalStateException("Review store failed to commit; restart to recover", cause);
+        failure = failed;
+        running = false;
+
+        List<PendingWrite> rejected = new ArrayList<>(batch);
+        queue.drainTo(rejected);
+        reject(rejected, failed);
+    }
+
+    private void reject(List<PendingWrite> writes, RuntimeException cause) {
+        writes.forEach(write -> completions.execute(() -> write.future().completeExceptionally(cause)));
+    }
+
+    private static RejectedExecutionException shutDown() {
+        return new RejectedExecutionException("Review writer is shut down");
+    }
+
+    /**
+     * A write waiting for its group commit.
+     */
+    private record PendingWrite(int showId, int score, String text, long enqueuedAt,
+                                CompletableFuture<Review> future) {
+    }
+}
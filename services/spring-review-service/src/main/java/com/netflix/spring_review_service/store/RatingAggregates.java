@@ -0,0 +1,278 @@
+package com.netflix.spring_review_service.store;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Per-show rating aggregates, maintained as reviews are written.
+ * <p>
+ * The aggregates listen to the {@link ReviewStore}: each append replaces the
+ * show's {@link ShowRating} with an updated copy. Appends are already
+ * serialized by the store, so there is no contention between writers, and
+ * readers get a consistent rating with a single map lookup, never touching a
+ * review record.
+ * <p>
+ * On startup the aggregates are loaded from the snapshot file in the store
+ * directory and only the reviews written after the snapshot are replayed;
+ * without a snapshot every review is scanned once. A new snapshot is written
+ * every {@code reviews.aggregates.snapshot-interval} and on shutdown.
+ */
+@Component // Spring component annotation for dependency injection
+public class RatingAggregates {
+
+    /**
+     * Logger instance for snapshot loading and writing
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(RatingAggregates.class);
+
+    /**
+     * First int of the snapshot file
+     */
+    private static final int SNAPSHOT_MAGIC = 0x52564131;
+
+    /**
+     * Name of the snapshot file inside the store directory
+     */
+    private static final String SNAPSHOT_FILE = "aggregates.snapshot";
+
+    /**
+     * Store the aggregates are derived from
+     */
+    private final ReviewStore reviewStore;
+
+    /**
+     * Delay between snapshots
+     */
+    private final Duration snapshotInterval;
+
+    /**
+     * Rating of every reviewed show
+     */
+    private final Map<Integer, ShowRating> ratings = new ConcurrentHashMap<>();
+
+    /**
+     * Sequence of the last review in the last written snapshot
+     */
+    private volatile long snapshotSequence;
+
+    /**
+     * Writes the periodic snapshots
+     */
+    private ScheduledExecutorService snapshotter;
+
+    /**
+     * Constructor injection for the store and snapshot settings.
+     *
+     * @param reviewStore      Store the aggregates are derived from
+     * @param snapshotInterval Delay between snapshots
+     */
+    public RatingAggregates(ReviewStore reviewStore,
+                            @Value("${reviews.aggregates.snapshot-interval:1m}") Duration snapshotInterval) {
+        this.reviewStore = reviewStore;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Restores the aggregates from the snapshot and the reviews written since,
+     * then follows new appends.
+     */
+    @PostConstruct
+    public void open() {
+        long loaded = loadSnapshot();
+
+        // Replay and subscribe without a gap: appends wait until the listener is in place
+        reviewStore.atSequence(lastSequence -> {
+            long fromSequence = loaded;
+            if (loaded > lastSequence) {
+                // The snapshot is ahead of the recovered store; rebuild from the reviews
+                LOGGER.warn("Rating snapshot at {} is ahead of the review store at {}, rebuilding", loaded, lastSequence);
+                ratings.clear();
+                fromSequence = 0;
+            }
+            long replayFrom = fromSequence;
+            int[] replayed = new int[1];
+            // Newest first, so the scan stops at the first review already in the snapshot
+            reviewStore.scanAll(record -> {
+                if (record.sequence() <= replayFrom) {
+                    return false;
+                }
+                apply(record);
+                replayed[0]++;
+                return true;
+            });
+            reviewStore.addListener(this::apply);
+            LOGGER.info("Restored ratings of {} shows, replayed {} reviews", ratings.size(), replayed[0]);
+            return null;
+        });
+
+        snapshotter = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("rating-snapshotter")
+                .daemon()
+                .factory());
+        long interval = snapshotInterval.toMillis();
+        snapshotter.scheduleWithFixedDelay(this::snapshot, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic snapshots and writes a final one.
+     */
+    @PreDestroy
+    public void close() {
+        if (snapshotter != null) {
+            snapshotter.shutdownNow();
+        }
+        snapshot();
+    }
+
+    /**
+     * Returns the rating of a show.
+     *
+     * @param showId Id of the show
+     * @return The show's rating, {@link ShowRating#EMPTY} without reviews
+     */
+    public ShowRating rating(int showId) {
+        return ratings.getOrDefault(showId, ShowRating.EMPTY);
+    }
+
+    /**
+     * Writes the current aggregates to the snapshot file if reviews were added
+     * since the last snapshot.
+     */
+    synchronized void snapshot() {
+        // Copy under the append lock, after forcing the reviews the copy covers to disk
+        Snapshot snapshot = reviewStore.atSequence(lastSequence -> {
+            if (lastSequence == snapshotSequence) {
+                return null;
+            }
+            reviewStore.flush();
+            return new Snapshot(lastSequence, Map.copyOf(ratings));
+        });
+        if (snapshot == null) {
+            return;
+        }
+
+        Path target = reviewStore.directory().resolve(SNAPSHOT_FILE);
+        Path temp = target.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                 CheckedOutputStream checked = new CheckedOutputStream(
+                         new BufferedOutputStream(Channels.newOutputStream(channel)), new CRC32());
+                 DataOutputStream out = new DataOutputStream(checked)) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeLong(snapshot.sequence());
+                out.writeInt(snapshot.ratings().size());
+                for (Map.Entry<Integer, ShowRating> entry : snapshot.ratings().entrySet()) {
+                    ShowRating rating = entry.getValue();
+                    out.writeInt(entry.getKey());
+                    out.writeLong(rating.count());
+                    out.writeLong(rating.sum());
+                    for (long scoreCount : rating.histogram()) {
+                        out.writeLong(scoreCount);
+                    }
+                }
+                out.flush();
+                out.writeLong(checked.getChecksum().getValue());
+                out.flush();
+                // The contents must be on disk before the rename can replace the previous snapshot
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            forceDirectory(reviewStore.directory());
+            snapshotSequence = snapshot.sequence();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Writing the rating snapshot failed", e);
+        }
+    }
+
+    /**
+     * Makes the rename of a snapshot durable.
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform; the rename is still atomic
+        }
+    }
+
+    /**
+     * Loads the snapshot file into the aggregates.
+     *
+     * @return Sequence of the last review in the snapshot, 0 without a usable snapshot
+     */
+    private long loadSnapshot() {
+        Path file = reviewStore.directory().resolve(SNAPSHOT_FILE);
+        try (InputStream input = Files.newInputStream(file);
+             CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(input), new CRC32());
+             DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a rating snapshot");
+            }
+            long sequence = in.readLong();
+            int shows = in.readInt();
+            Map<Integer, ShowRating> loaded = new ConcurrentHashMap<>(shows);
+            for (int i = 0; i < shows; i++) {
+                int showId = in.readInt();
+                long count = in.readLong();
+                long sum = in.readLong();
+                long[] histogram = new long[ShowRating.EMPTY.histogram().length];
+                for (int score = 0; score < histogram.length; score++) {
+                    histogram[score] = in.readLong();
+                }
+                loaded.put(showId, new ShowRating(count, sum, histogram));
+            }
+            long checksum = checked.getChecksum().getValue();
+            if (in.readLong() != checksum) {
+                throw new IOException("Checksum mismatch");
+            }
+
+            ratings.putAll(loaded);
+            snapshotSequence = sequence;
+            return sequence;
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException e) {
+            LOGGER.warn("Ignoring unreadable rating snapshot {}, rebuilding from the reviews", file, e);
+            return 0;
+        }
+    }
+
+    private void apply(ReviewRecord record) {
+        ratings.compute(record.showId(), (showId, rating) ->
+                (rating == null ? ShowRating.EMPTY : rating).with(record.score()));
+    }
+
+    /**
+     * Aggregates copied at a store sequence.
+     */
+    private record Snapshot(long sequence, Map<Integer, ShowRating> ratings) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.netflix.spring_review_service.store;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of record references with a single writer and lock-free readers.
+ * <p>
+ * The writer stores the element before publishing the new size through a
+ * volatile write, and a grown array is published before any element beyond
+ * the old capacity. A reader that reads {@link #size()} first and then
+ * {@link #refs()} therefore always sees at least {@code size} valid elements.
+ */
+final class RefList {
+
+    /**
+     * Elements, possibly with spare capacity past {@link #size}
+     */
+    private volatile long[] refs;
+
+    /**
+     * Number of published elements
+     */
+    private volatile int size;
+
+    RefList() {
+        this(new long[4], 0);
+    }
+
+    private RefList(long[] refs, int size) {
+        this.refs = refs;
+        this.size = size;
+    }
+
+    /**
+     * Creates a list holding a copy of the given elements.
+     *
+     * @param refs Elements
+     * @param size Number of elements to copy
+     * @return The new list
+     */
+    static RefList copyOf(long[] refs, int size) {
+        return new RefList(Arrays.copyOf(refs, Math.max(4, size)), size);
+    }
+
+    /**
+     * Appends an element. Must only be called by the single writer.
+     *
+     * @param ref Reference to append
+     */
+    void add(long ref) {
+        long[] current = refs;
+        int count = size;
+        if (count == current.length) {
+            current = Arrays.copyOf(current, count * 2);
+            refs = current;
+        }
+        current[count] = ref;
+        size = count + 1;
+    }
+
+    /**
+     * Returns the number of published elements. Read before {@link #refs()}.
+     *
+     * @return Element count
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the backing array; only the first {@link #size()} elements are valid.
+     *
+     * @return Backing array, not to be modified
+     */
+    long[] refs() {
+        return refs;
+    }
+}
@@ -0,0 +1,114 @@
+package com.netflix.spring_review_service.store;
+
+import com.netflix.spring_review_service.types.Review;
+import com.netflix.spring_review_service.types.Show;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Flyweight view of one review record inside a mapped segment.
+ * <p>
+ * Scans reposition a single instance over successive records instead of
+ * creating objects, so numeric fields are read straight from the mapping and
+ * the text is only decoded when {@link #text()} or {@link #toReview()} is called.
+ * An instance is only valid during the callback that received it.
+ */
+public final class ReviewRecord {
+
+    /**
+     * Mapping containing the current record
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Offset of the current record's payload
+     */
+    private int payload;
+
+    /**
+     * Reference of the current record
+     */
+    private long ref;
+
+    /**
+     * Positions the view over a record.
+     *
+     * @param buffer  Segment mapping
+     * @param payload Offset of the record payload
+     * @param ref     Record reference
+     * @return This view
+     */
+    ReviewRecord wrap(ByteBuffer buffer, int payload, long ref) {
+        this.buffer = buffer;
+        this.payload = payload;
+        this.ref = ref;
+        return this;
+    }
+
+    /**
+     * Returns the record reference (segment id and offset).
+     *
+     * @return Record reference
+     */
+    public long ref() {
+        return ref;
+    }
+
+    /**
+     * Returns the store-wide sequence number; later reviews have larger numbers.
+     *
+     * @return Sequence number
+     */
+    public long sequence() {
+        return buffer.getLong(payload + ReviewStore.SEQUENCE_OFFSET);
+    }
+
+    /**
+     * Returns the time the review was written.
+     *
+     * @return Epoch milliseconds
+     */
+    public long timestamp() {
+        return buffer.getLong(payload + ReviewStore.TIMESTAMP_OFFSET);
+    }
+
+    /**
+     * Returns the id of the reviewed show.
+     *
+     * @return showId
+     */
+    public int showId() {
+        return buffer.getInt(payload + ReviewStore.SHOW_ID_OFFSET);
+    }
+
+    /**
+     * Returns the review score.
+     *
+     * @return Score
+     */
+    public int score() {
+        return buffer.get(payload + ReviewStore.SCORE_OFFSET);
+    }
+
+    /**
+     * Decodes the review text.
+     *
+     * @return Review text
+     */
+    public String text() {
+        int length = buffer.getInt(payload + ReviewStore.TEXT_LENGTH_OFFSET);
+        byte[] bytes = new byte[length];
+        buffer.get(payload + ReviewStore.TEXT_OFFSET, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Materializes the record as a GraphQL Review with its show reference.
+     *
+     * @return A new Review
+     */
+    public Review toReview() {
+        return new Review(score(), text(), new Show(showId(), null));
+    }
+}
@@ -0,0 +1,923 @@
+package com.netflix.spring_review_service.store;
+
+import com.netflix.spring_review_service.types.Review;
+import com.netflix.spring_review_service.types.ReviewSort;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded, log-structured store for reviews.
+ * <p>
+ * Reviews are appended to segment files under {@code reviews.store.path}. The
+ * active segment is preallocated to {@code reviews.store.segment-size} and
+ * mapped read-write; when it is full it is sealed and a new one is started.
+ * Every segment is read through its memory mapping, so review bodies live in
+ * the page cache rather than on the heap. The heap only holds the index: for
+ * every show, and for the store as a whole, the references (segment id and
+ * offset) of its records in write order, plus for every show one such list
+ * per score. Paginated reads walk these lists backwards from a position, so
+ * both newest-first and highest-score-first pages are served without sorting
+ * and only the records of the page are read.
+ * <p>
+ * Record layout, little overhead and self-validating:
+ * <pre>
+ * int  length    payload length, 0 marks the end of the segment
+ * int  crc       CRC32 of the payload
+ * long sequence  store-wide, increasing
+ * long timestamp epoch milliseconds
+ * int  showId
+ * byte score
+ * int  textLength
+ * byte[] text    UTF-8
+ * </pre>
+ * On startup all segments are scanned and the index is rebuilt. Scanning stops
+ * at the first record whose length or CRC doesn't check out; in the active
+ * segment that torn tail is zeroed so new records can be appended after the
+ * last complete one.
+ * <p>
+ * A background task compacts sealed segments once
+ * {@code reviews.store.compaction-threshold} of them have accumulated: their
+ * records are copied, grouped by show, into one exactly sized compacted
+ * segment, which drops the unused preallocated tails and makes the reviews of
+ * a show contiguous on disk. The compacted file lists its source segments in
+ * its header, so a crash between publishing it and deleting the sources never
+ * duplicates reviews.
+ * <p>
+ * Appends are serialized; reads never lock.
+ */
+@Component // Spring component annotation for dependency injection
+public class ReviewStore {
+
+    /**
+     * Logger instance for recovery and compaction
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReviewStore.class);
+
+    /**
+     * Size of the length and CRC fields preceding every payload
+     */
+    static final int HEADER_SIZE = 8;
+
+    /**
+     * Payload field offsets
+     */
+    static final int SEQUENCE_OFFSET = 0;
+    static final int TIMESTAMP_OFFSET = 8;
+    static final int SHOW_ID_OFFSET = 16;
+    static final int SCORE_OFFSET = 20;
+    static final int TEXT_LENGTH_OFFSET = 21;
+    static final int TEXT_OFFSET = 25;
+
+    /**
+     * Position to start a positioned scan from the beginning
+     */
+    public static final long START = -1;
+
+    /**
+     * Maximum encoded length of a review text
+     */
+    public static final int MAX_TEXT_BYTES = 16 * 1024;
+
+    /**
+     * First int of every compacted segment
+     */
+    private static final int COMPACTED_MAGIC = 0x52564331;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String COMPACTED_PREFIX = "compacted-";
+    private static final String SUFFIX = ".log";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Directory holding the segment files
+     */
+    private final Path directory;
+
+    /**
+     * Capacity of a new active segment
+     */
+    private final int segmentSize;
+
+    /**
+     * Number of sealed segments that triggers a compaction
+     */
+    private final int compactionThreshold;
+
+    /**
+     * Delay between compaction checks
+     */
+    private final Duration compactionInterval;
+
+    /**
+     * All readable segments by id
+     */
+    private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+
+    /**
+     * Record references of every show, oldest first
+     */
+    private final Map<Integer, RefList> byShow = new ConcurrentHashMap<>();
+
+    /**
+     * Record references of every show per score, oldest first; index 0 for
+     * {@link ShowRating#MIN_SCORE}. Arrays are replaced, never modified
+     */
+    private final Map<Integer, RefList[]> byShowAndScore = new ConcurrentHashMap<>();
+
+    /**
+     * Record references of the whole store, oldest first
+     */
+    private volatile RefList all = new RefList();
+
+    /**
+     * Serializes appends, segment rolls and index swaps
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * Checksum of the record being written, guarded by {@link #writeLock}
+     */
+    private final CRC32 writeCrc = new CRC32();
+
+    /**
+     * Flyweight passed to listeners, guarded by {@link #writeLock}
+     */
+    private final ReviewRecord appendedRecord = new ReviewRecord();
+
+    /**
+     * Notified of every append
+     */
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Segment receiving appends
+     */
+    private volatile Segment active;
+
+    /**
+     * Id of the next segment, guarded by {@link #writeLock}
+     */
+    private int nextSegmentId;
+
+    /**
+     * Sequence of the next record, guarded by {@link #writeLock}
+     */
+    private long nextSequence = 1;
+
+    /**
+     * Serializes compactions
+     */
+    private final ReentrantLock compactionLock = new ReentrantLock();
+
+    /**
+     * Segments replaced by the last compaction, deleted by the next one so
+     * readers still holding old references can finish
+     */
+    private final List<Segment> retired = new ArrayList<>();
+
+    /**
+     * Runs compactions off the request path
+     */
+    private ScheduledExecutorService compactor;
+
+    /**
+     * Constructor injection for the store settings.
+     *
+     * @param directory           Directory holding the segment files
+     * @param segmentSize         Capacity of a segment
+     * @param compactionThreshold Number of sealed segments that triggers a compaction
+     * @param compactionInterval  Delay between compaction checks
+     */
+    public ReviewStore(@Value("${reviews.store.path:data/reviews}") String directory,
+                       @Value("${reviews.store.segment-size:64MB}") DataSize segmentSize,
+                       @Value("${reviews.store.compaction-threshold:4}") int compactionThreshold,
+                       @Value("${reviews.store.compaction-interval:5m}") Duration compactionInterval) {
+        this.directory = Path.of(directory);
+        this.segmentSize = (int) Math.clamp(segmentSize.toBytes(), HEADER_SIZE + TEXT_OFFSET + MAX_TEXT_BYTES,
+                Integer.MAX_VALUE);
+        this.compactionThreshold = Math.max(2, compactionThreshold);
+        this.compactionInterval = compactionInterval;
+    }
+
+    /**
+     * Recovers the store from its segment files and starts background compaction.
+     *
+     * @throws IOException if the segment files cannot be read
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        recover();
+
+        compactor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("review-compactor")
+                .daemon()
+                .factory());
+        long interval = compactionInterval.toMillis();
+        compactor.scheduleWithFixedDelay(this::compact, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops compaction and forces outstanding appends to disk.
+     */
+    @PreDestroy
+    public void close() {
+        if (compactor != null) {
+            compactor.shutdownNow();
+        }
+        flush();
+    }
+
+    /**
+     * Appends a review. The record is visible to readers on return but only
+     * durable after the next {@link #flush()}.
+     *
+     * @param showId Id of the reviewed show
+     * @param score  Review score
+     * @param text   Review text, at most {@link #MAX_TEXT_BYTES} bytes in UTF-8
+     * @return Sequence number of the new record
+     * @throws IllegalArgumentException if the score doesn't fit a byte or the text is too long
+     */
+    public long append(int showId, int score, String text) {
+        if (score < Byte.MIN_VALUE || score > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Score out of range: " + score);
+        }
+        byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
+        if (textBytes.length > MAX_TEXT_BYTES) {
+            throw new IllegalArgumentException("Review text exceeds " + MAX_TEXT_BYTES + " bytes");
+        }
+        int length = TEXT_OFFSET + textBytes.length;
+
+        synchronized (writeLock) {
+            Segment segment = active;
+            int offset = segment.end();
+            if (offset + HEADER_SIZE + length > segment.capacity()) {
+                segment = roll();
+                offset = segment.end();
+            }
+
+            long sequence = nextSequence++;
+            MappedByteBuffer buffer = segment.buffer();
+            int payload = offset + HEADER_SIZE;
+            buffer.putLong(payload + SEQUENCE_OFFSET, sequence);
+            buffer.putLong(payload + TIMESTAMP_OFFSET, System.currentTimeMillis());
+            buffer.putInt(payload + SHOW_ID_OFFSET, showId);
+            buffer.put(payload + SCORE_OFFSET, (byte) score);
+            buffer.putInt(payload + TEXT_LENGTH_OFFSET, textBytes.length);
+            buffer.put(payload + TEXT_OFFSET, textBytes);
+
+            writeCrc.reset();
+            writeCrc.update(buffer.slice(payload, length));
+            buffer.putInt(offset + 4, (int) writeCrc.getValue());
+            // Length last: a non-zero length marks a record as present
+            buffer.putInt(offset, length);
+
+            segment.end(payload + length);
+            long ref = ref(segment.id(), offset);
+            index(showId, score, ref);
+            if (!listeners.isEmpty()) {
+                ReviewRecord record = appendedRecord.wrap(buffer, payload, ref);
+                listeners.forEach(listener -> listener.appended(record));
+            }
+            return sequence;
+        }
+    }
+
+    /**
+     * Registers a listener called for every subsequent append.
+     *
+     * @param listener Listener to add
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Runs an action while appends are paused. Everything derived from the
+     * records up to the given sequence, including listener state, is stable
+     * for the duration of the call.
+     *
+     * @param action Receives the sequence of the last appended record, 0 if none
+     * @param <T>    Result type
+     * @return The action's result
+     */
+    public <T> T atSequence(LongFunction<T> action) {
+        synchronized (writeLock) {
+            return action.apply(nextSequence - 1);
+        }
+    }
+
+    /**
+     * Returns the directory holding the segment files.
+     *
+     * @return Store directory
+     */
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Forces all appended records to disk.
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            if (active != null) {
+                active.flush();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of reviews in the store.
+     *
+     * @return Review count
+     */
+    public int size() {
+        return all.size();
+    }
+
+    /**
+     * Returns the number of reviews of a show, without reading any record.
+     *
+     * @param showId Id of the show
+     * @return Review count
+     */
+    public int count(int showId) {
+        RefList refs = byShow.get(showId);
+        return refs == null ? 0 : refs.size();
+    }
+
+    /**
+     * Visits the reviews of a show, newest first, directly on the mapped segments.
+     *
+     * @param showId  Id of the show
+     * @param visitor Receives a flyweight valid only during the call; returns false to stop
+     */
+    public void scan(int showId, Predicate<ReviewRecord> visitor) {
+        scan(showId, ReviewSort.NEWEST, START, (record, position) -> visitor.test(record));
+    }
+
+    /**
+     * Visits all reviews of the store, newest first, directly on the mapped segments.
+     *
+     * @param visitor Receives a flyweight valid only during the call; returns false to stop
+     */
+    public void scanAll(Predicate<ReviewRecord> visitor) {
+        scanAll(START, (record, position) -> visitor.test(record));
+    }
+
+    /**
+     * Visits the reviews of a show in the given order, resuming after a position.
+     * <p>
+     * Positions are stable: records are only ever appended to the index lists,
+     * so passing the position of the last visited record continues exactly
+     * where the previous scan stopped, even if reviews were added in between.
+     * Newer reviews are then not part of the continued scan.
+     *
+     * @param showId  Id of the show
+     * @param order   NEWEST, or HIGHEST_SCORE with the newest first within a score
+     * @param after   Position of the last record already seen, or {@link #START}
+     * @param visitor Receives each record and its position; returns false to stop
+     */
+    public void scan(int showId, ReviewSort order, long after, Visitor visitor) {
+        if (order == ReviewSort.HIGHEST_SCORE) {
+            RefList[] buckets = byShowAndScore.get(showId);
+            if (buckets == null) {
+                return;
+            }
+            // Position: bucket + 1 in the high bits, index within the bucket in the low bits
+            int bucket = after == START ? buckets.length - 1 : (int) (after >>> 32) - 1;
+            int before = after == START ? Integer.MAX_VALUE : (int) after;
+            for (; bucket >= 0; bucket--) {
+                if (!scan(buckets[bucket], before, ((long) bucket + 1) << 32, visitor)) {
+                    return;
+                }
+                before = Integer.MAX_VALUE;
+            }
+        } else {
+            RefList refs = byShow.get(showId);
+            if (refs != null) {
+                scan(refs, after == START ? Integer.MAX_VALUE : (int) after, 0, visitor);
+            }
+        }
+    }
+
+    /**
+     * Visits all reviews of the store, newest first, resuming after a position.
+     *
+     * @param after   Position of the last record already seen, or {@link #START}
+     * @param visitor Receives each record and its position; returns false to stop
+     */
+    public void scanAll(long after, Visitor visitor) {
+        scan(all, after == START ? Integer.MAX_VALUE : (int) after, 0, visitor);
+    }
+
+    /**
+     * Returns the reviews of a show, newest first.
+     *
+     * @param showId Id of the show
+     * @param limit  Maximum number of reviews
+     * @return The reviews with their show reference
+     */
+    public List<Review> reviews(int showId, int limit) {
+        if (limit <= 0) {
+            // The scan always visits a first record
+            return List.of();
+        }
+        List<Review> reviews = new ArrayList<>(Math.min(limit, count(showId)));
+        scan(showId, record -> {
+            reviews.add(record.toReview());
+            return reviews.size() < limit;
+        });
+        return reviews;
+    }
+
+    /**
+     * Returns the most recent reviews across all shows, newest first.
+     *
+     * @param limit Maximum number of reviews
+     * @return The reviews with their show reference
+     */
+    public List<Review> recent(int limit) {
+        if (limit <= 0) {
+            // The scan always visits a first record
+            return List.of();
+        }
+        List<Review> reviews = new ArrayList<>(Math.min(limit, size()));
+        scanAll(record -> {
+            reviews.add(record.toReview());
+            return reviews.size() < limit;
+        });
+        return reviews;
+    }
+
+    /**
+     * Positions a flyweight over a record.
+     *
+     * @param ref    Record reference
+     * @param record Flyweight to reposition
+     * @return The flyweight
+     */
+    ReviewRecord read(long ref, ReviewRecord record) {
+        Segment segment = segments.get(segmentId(ref));
+        return record.wrap(segment.buffer(), offset(ref) + HEADER_SIZE, ref);
+    }
+
+    /**
+     * Walks a reference list backwards from just before an index.
+     *
+     * @return false if the visitor stopped the scan
+     */
+    private boolean scan(RefList refs, int before, long positionTag, Visitor visitor) {
+        // Size before array, see RefList
+        int size = refs.size();
+        long[] elements = refs.refs();
+        ReviewRecord record = new ReviewRecord();
+        for (int i = Math.min(before, size) - 1; i >= 0; i--) {
+            if (!visitor.visit(read(elements[i], record), positionTag | i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds a record to the index. Called under {@link #writeLock} or during recovery.
+     */
+    private void index(int showId, int score, long ref) {
+        byShow.computeIfAbsent(showId, id -> new RefList()).add(ref);
+        byShowAndScore.computeIfAbsent(showId, id -> newBuckets())[bucket(score)].add(ref);
+        all.add(ref);
+    }
+
+    private static RefList[] newBuckets() {
+        RefList[] buckets = new RefList[ShowRating.MAX_SCORE - ShowRating.MIN_SCORE + 1];
+        Arrays.setAll(buckets, bucket -> new RefList());
+        return buckets;
+    }
+
+    /**
+     * Maps a score to its bucket; scores outside the rating scale go to the nearest end.
+     */
+    private static int bucket(int score) {
+        return Math.clamp(score, ShowRating.MIN_SCORE, ShowRating.MAX_SCORE) - ShowRating.MIN_SCORE;
+    }
+
+    /**
+     * Seals the active segment and starts a new one. Called under {@link #writeLock}.
+     */
+    private Segment roll() {
+        active.flush();
+        try {
+            int id = nextSegmentId++;
+            Segment segment = Segment.openWritable(id, segmentPath(SEGMENT_PREFIX, id), segmentSize);
+            segments.put(id, segment);
+            active = segment;
+            return segment;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create review segment in " + directory, e);
+        }
+    }
+
+    /**
+     * Rebuilds the index from the segment files.
+     */
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.sorted().toList();
+        }
+
+        // Leftovers of an interrupted compaction, and sources of a finished one
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(TEMP_SUFFIX)) {
+                Files.delete(file);
+            } else if (name.startsWith(COMPACTED_PREFIX) && name.endsWith(SUFFIX)) {
+                for (int source : compactedSources(file)) {
+                    Files.deleteIfExists(segmentPath(SEGMENT_PREFIX, source));
+                }
+            }
+        }
+
+        List<Segment> opened = new ArrayList<>();
+        int lastActiveId = -1;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (!name.endsWith(SUFFIX) || !Files.exists(file)) {
+                continue;
+            }
+            if (name.startsWith(COMPACTED_PREFIX)) {
+                opened.add(Segment.openReadOnly(segmentId(name, COMPACTED_PREFIX), file, true));
+            } else if (name.startsWith(SEGMENT_PREFIX)) {
+                lastActiveId = Math.max(lastActiveId, segmentId(name, SEGMENT_PREFIX));
+            }
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SUFFIX) && Files.exists(file)) {
+                int id = segmentId(name, SEGMENT_PREFIX);
+                opened.add(id == lastActiveId
+                        ? Segment.openWritable(id, file, segmentSize)
+                        : Segment.openReadOnly(id, file, false));
+            }
+        }
+        opened.sort(Comparator.comparingInt(Segment::id));
+
+        // Scan every segment, collecting sequence and reference of each valid record
+        long[] sequences = new long[1024];
+        long[] refs = new long[1024];
+        int count = 0;
+        long minSequence = Long.MAX_VALUE;
+        long maxSequence = 0;
+        for (Segment segment : opened) {
+            segments.put(segment.id(), segment);
+            nextSegmentId = Math.max(nextSegmentId, segment.id() + 1);
+
+            ByteBuffer buffer = segment.buffer();
+            int offset = segment.compacted() ? buffer.getInt(4) * 4 + 8 : 0;
+            CRC32 crc = new CRC32();
+            while (isValid(buffer, offset, crc)) {
+                if (count == refs.length) {
+                    sequences = Arrays.copyOf(sequences, count * 2);
+                    refs = Arrays.copyOf(refs, count * 2);
+                }
+                long sequence = buffer.getLong(offset + HEADER_SIZE + SEQUENCE_OFFSET);
+                sequences[count] = sequence;
+                refs[count++] = ref(segment.id(), offset);
+                minSequence = Math.min(minSequence, sequence);
+                maxSequence = Math.max(maxSequence, sequence);
+                offset += HEADER_SIZE + buffer.getInt(offset);
+            }
+            segment.end(offset);
+
+            if (offset + HEADER_SIZE <= buffer.capacity() && buffer.getInt(offset) != 0) {
+                LOGGER.warn("Discarding torn records after offset {} of {}", offset, segment.path());
+                if (segment.id() == lastActiveId) {
+                    zeroTail(segment, offset);
+                }
+            }
+        }
+
+        // Sequences are unique and dense, so placing each record at its sequence sorts them
+        if (count > 0) {
+            long span = maxSequence - minSequence + 1;
+            if (span > Integer.MAX_VALUE - 8) {
+                throw new IOException("Review sequence range too large to index: " + span);
+            }
+            long[] ordered = new long[(int) span];
+            Arrays.fill(ordered, -1);
+            for (int i = 0; i < count; i++) {
+                ordered[(int) (sequences[i] - minSequence)] = refs[i];
+            }
+            ReviewRecord record = new ReviewRecord();
+            for (long ref : ordered) {
+                if (ref != -1) {
+                    read(ref, record);
+                    index(record.showId(), record.score(), ref);
+                }
+            }
+            nextSequence = maxSequence + 1;
+        }
+
+        Segment last = segments.get(lastActiveId);
+        if (last == null) {
+            int id = nextSegmentId++;
+            last = Segment.openWritable(id, segmentPath(SEGMENT_PREFIX, id), segmentSize);
+            segments.put(id, last);
+        }
+        active = last;
+        LOGGER.info("Recovered {} reviews from {} segments in {}", count, opened.size(), directory);
+    }
+
+    /**
+     * Checks that a complete record with a matching CRC starts at the offset.
+     */
+    private static boolean isValid(ByteBuffer buffer, int offset, CRC32 crc) {
+        if (offset + HEADER_SIZE + TEXT_OFFSET > buffer.capacity()) {
+            return false;
+        }
+        int length = buffer.getInt(offset);
+        if (length < TEXT_OFFSET || length > TEXT_OFFSET + MAX_TEXT_BYTES
+                || offset + HEADER_SIZE + length > buffer.capacity()) {
+            return false;
+        }
+        if (buffer.getInt(offset + HEADER_SIZE + TEXT_LENGTH_OFFSET) != length - TEXT_OFFSET) {
+            return false;
+        }
+        crc.reset();
+        crc.update(buffer.slice(offset + HEADER_SIZE, length));
+        return (int) crc.getValue() == buffer.getInt(offset + 4);
+    }
+
+    /**
+     * Zeroes an active segment from the offset to its end, so stale bytes of
+     * torn records can't be mistaken for records later.
+     */
+    private static void zeroTail(Segment segment, int offset) {
+        MappedByteBuffer buffer = segment.buffer();
+        byte[] zeros = new byte[64 * 1024];
+        for (int position = offset; position < buffer.capacity(); position += zeros.length) {
+            buffer.put(position, zeros, 0, Math.min(zeros.length, buffer.capacity() - position));
+        }
+        buffer.force();
+    }
+
+    /**
+     * Compacts the sealed segments if enough of them have accumulated.
+     * Runs on the compactor thread; failures leave the store unchanged.
+     */
+    void compact() {
+        if (!compactionLock.tryLock()) {
+            return;
+        }
+        Path temp = null;
+        try {
+            deleteRetired();
+
+            int activeId = active.id();
+            List<Segment> sources = segments.values().stream()
+                    .filter(segment -> !segment.compacted() && segment.id() < activeId)
+                    .sorted(Comparator.comparingInt(Segment::id))
+                    .toList();
+            if (sources.size() < compactionThreshold) {
+                return;
+            }
+
+            // Collect the records; segment order and offsets keep references ascending
+            long[] oldRefs = new long[1024];
+            int count = 0;
+            long bytes = 8 + 4L * sources.size();
+            ReviewRecord record = new ReviewRecord();
+            List<Segment> compacted = new ArrayList<>();
+            for (Segment source : sources) {
+                if (bytes + source.end() > Integer.MAX_VALUE) {
+                    break;
+                }
+                compacted.add(source);
+                ByteBuffer buffer = source.buffer();
+                for (int offset = 0; offset < source.end(); offset += HEADER_SIZE + buffer.getInt(offset)) {
+                    if (count == oldRefs.length) {
+                        oldRefs = Arrays.copyOf(oldRefs, count * 2);
+                    }
+                    oldRefs[count++] = ref(source.id(), offset);
+                }
+                bytes += source.end();
+            }
+            int headerSize = 8 + 4 * compacted.size();
+
+            // Group by show; the index in the low bits keeps write order within a show
+            long[] order = new long[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = ((long) read(oldRefs[i], record).showId() << 32) | i;
+            }
+            Arrays.sort(order);
+
+            int id;
+            synchronized (writeLock) {
+                id = nextSegmentId++;
+            }
+            Path target = segmentPath(COMPACTED_PREFIX, id);
+            temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+            long[] newRefs = new long[count];
+            int position = headerSize;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(headerSize);
+                header.putInt(COMPACTED_MAGIC).putInt(compacted.size());
+                compacted.forEach(source -> header.putInt(source.id()));
+                channel.write(header.flip());
+
+                for (long key : order) {
+                    int index = (int) key;
+                    long ref = oldRefs[index];
+                    ByteBuffer buffer = segments.get(segmentId(ref)).buffer();
+                    int length = HEADER_SIZE + buffer.getInt(offset(ref));
+                    ByteBuffer bytesOfRecord = buffer.slice(offset(ref), length);
+                    while (bytesOfRecord.hasRemaining()) {
+                        channel.write(bytesOfRecord);
+                    }
+                    newRefs[index] = ref(id, position);
+                    position += length;
+                }
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            temp = null;
+            forceDirectory();
+
+            Segment segment = Segment.openReadOnly(id, target, true);
+            segment.end(position);
+            segments.put(id, segment);
+            swapReferences(oldRefs, newRefs, count);
+            retired.addAll(compacted);
+            LOGGER.info("Compacted {} segments with {} reviews into {}", compacted.size(), count, target);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Review compaction failed, keeping the current segments", e);
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Removed on the next startup
+                }
+            }
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    /**
+     * Points the index at the compacted copies of the records. Lists are
+     * replaced, never modified, so concurrent scans finish on the old ones.
+     */
+    private void swapReferences(long[] oldRefs, long[] newRefs, int count) {
+        synchronized (writeLock) {
+            byShow.replaceAll((showId, refs) -> remap(refs, oldRefs, newRefs, count));
+            byShowAndScore.replaceAll((showId, buckets) -> {
+                RefList[] remapped = new RefList[buckets.length];
+                Arrays.setAll(remapped, bucket -> remap(buckets[bucket], oldRefs, newRefs, count));
+                return remapped;
+            });
+            all = remap(all, oldRefs, newRefs, count);
+        }
+    }
+
+    private static RefList remap(RefList refs, long[] oldRefs, long[] newRefs, int count) {
+        int size = refs.size();
+        long[] elements = null;
+        long[] current = refs.refs();
+        for (int i = 0; i < size; i++) {
+            int index = Arrays.binarySearch(oldRefs, 0, count, current[i]);
+            if (index >= 0) {
+                if (elements == null) {
+                    elements = Arrays.copyOf(current, size);
+                }
+                elements[i] = newRefs[index];
+            }
+        }
+        return elements == null ? refs : RefList.copyOf(elements, size);
+    }
+
+    /**
+     * Deletes the segments retired by the previous compaction.
+     */
+    private void deleteRetired() throws IOException {
+        for (Segment segment : retired) {
+            segments.remove(segment.id());
+            Files.deleteIfExists(segment.path());
+        }
+        retired.clear();
+    }
+
+    /**
+     * Makes the rename of a compacted segment durable.
+     */
+    private void forceDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform; the rename is still atomic
+        }
+    }
+
+    /**
+     * Reads the ids of the segments a compacted segment replaced.
+     */
+    private static int[] compactedSources(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(8);
+            channel.read(header, 0);
+            if (header.flip().remaining() < 8 || header.getInt() != COMPACTED_MAGIC) {
+                throw new IOException("Not a compacted review segment: " + file);
+            }
+            ByteBuffer ids = ByteBuffer.allocate(4 * header.getInt());
+            channel.read(ids, 8);
+            ids.flip();
+            int[] sources = new int[ids.remaining() / 4];
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = ids.getInt();
+            }
+            return sources;
+        }
+    }
+
+    private Path segmentPath(String prefix, int id) {
+        return directory.resolve(prefix + "%010d".formatted(id) + SUFFIX);
+    }
+
+    private static int segmentId(String fileName, String prefix) {
+        return Integer.parseInt(fileName.substring(prefix.length(), fileName.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Callback of a positioned scan.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * Called for each record of the scan.
+         *
+         * @param record   Flyweight over the record, valid only during the call
+         * @param position Position to resume a later scan after this record
+         * @return false to stop the scan
+         */
+        boolean visit(ReviewRecord record, long position);
+    }
+
+    /**
+     * Callback for appended reviews.
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        /**
+         * Called under the append lock right after a record is written; must be quick.
+         *
+         * @param record Flyweight over the new record, valid only during the call
+         */
+        void appended(ReviewRecord record);
+    }
+
+    private static long ref(int segmentId, int offset) {
+        return ((long) segmentId << 32) | offset;
+    }
+
+    private static int segmentId(long ref) {
+        return (int) (ref >>> 32);
+    }
+
+    private static int offset(long ref) {
+        return (int) ref;
+    }
+}
@@ -0,0 +1,136 @@
+package com.netflix.spring_review_service.store;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One memory-mapped segment file of the review log.
+ * <p>
+ * Active segments are preallocated to their full capacity and mapped
+ * read-write; records are appended at {@link #end()}. Sealed and compacted
+ * segments are never written again. Reads use absolute accessors on the shared
+ * mapping, which never moves the buffer position, so any number of threads can
+ * read concurrently.
+ */
+final class Segment {
+
+    /**
+     * Segment id, unique and increasing within a store
+     */
+    private final int id;
+
+    /**
+     * Segment file
+     */
+    private final Path path;
+
+    /**
+     * Mapping of the whole file
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * Whether the segment was produced by compaction
+     */
+    private final boolean compacted;
+
+    /**
+     * Offset after the last complete record
+     */
+    private volatile int end;
+
+    /**
+     * Offset up to which the segment has been forced to disk
+     */
+    private int flushed;
+
+    private Segment(int id, Path path, MappedByteBuffer buffer, boolean compacted, int end) {
+        this.id = id;
+        this.path = path;
+        this.buffer = buffer;
+        this.compacted = compacted;
+        this.end = end;
+        this.flushed = end;
+    }
+
+    /**
+     * Maps a segment file read-write, creating and preallocating it if needed.
+     *
+     * @param id       Segment id
+     * @param path     Segment file
+     * @param capacity Size of the file
+     * @return The mapped segment, with {@link #end()} at 0 until recovery sets it
+     * @throws IOException if the file cannot be created or mapped
+     */
+    static Segment openWritable(int id, Path path, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long size = Math.max(channel.size(), capacity);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new Segment(id, path, buffer, false, 0);
+        }
+    }
+
+    /**
+     * Maps an existing segment file read-only.
+     *
+     * @param id        Segment id
+     * @param path      Segment file
+     * @param compacted Whether the file was produced by compaction
+     * @return The mapped segment, with {@link #end()} at 0 until recovery sets it
+     * @throws IOException if the file cannot be mapped
+     */
+    static Segment openReadOnly(int id, Path path, boolean compacted) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new Segment(id, path, buffer, compacted, 0);
+        }
+    }
+
+    int id() {
+        return id;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    MappedByteBuffer buffer() {
+        return buffer;
+    }
+
+    boolean compacted() {
+        return compacted;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    int end() {
+        return end;
+    }
+
+    /**
+     * Publishes appended bytes to readers. Called by the single writer after a record is complete.
+     *
+     * @param end New end offset
+     */
+    void end(int end) {
+        this.end = end;
+    }
+
+    /**
+     * Forces the bytes written since the last flush to disk.
+     */
+    void flush() {
+        int current = end;
+        if (current > flushed) {
+            buffer.force(flushed, current - flushed);
+            flushed = current;
+        }
+    }
+}
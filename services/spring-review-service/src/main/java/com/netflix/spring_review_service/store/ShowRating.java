@@ -0,0 +1,64 @@
+package com.netflix.spring_review_service.store;
+
+import java.util.Arrays;
+
+/**
+ * Immutable rating aggregate of one show.
+ * <p>
+ * Every review produces a new instance that replaces the previous one, so a
+ * reader always sees count, sum and histogram of the same set of reviews.
+ *
+ * @param count     Number of reviews
+ * @param sum       Sum of all scores
+ * @param histogram Number of reviews per score, index 0 for {@link #MIN_SCORE}; not to be modified
+ */
+public record ShowRating(long count, long sum, long[] histogram) {
+
+    /**
+     * Lowest score counted in the histogram
+     */
+    public static final int MIN_SCORE = 1;
+
+    /**
+     * Highest score counted in the histogram
+     */
+    public static final int MAX_SCORE = 5;
+
+    /**
+     * Rating of a show without reviews
+     */
+    public static final ShowRating EMPTY = new ShowRating(0, 0, new long[MAX_SCORE - MIN_SCORE + 1]);
+
+    /**
+     * Returns the rating including one more review.
+     *
+     * @param score Score of the review
+     * @return The updated rating
+     */
+    public ShowRating with(int score) {
+        long[] updated = Arrays.copyOf(histogram, histogram.length);
+        if (score >= MIN_SCORE && score <= MAX_SCORE) {
+            updated[score - MIN_SCORE]++;
+        }
+        return new ShowRating(count + 1, sum + score, updated);
+    }
+
+    /**
+     * Returns the number of reviews with a score.
+     *
+     * @param score Score between {@link #MIN_SCORE} and {@link #MAX_SCORE}
+     * @return Review count for that score
+     */
+    public long count(int score) {
+        return histogram[score - MIN_SCORE];
+    }
+
+    /**
+     * Returns the mean score.
+     *
+     * @return Average score, or null without reviews
+     */
+    public Double average() {
+        return count == 0 ? null : (double) sum / count;
+    }
+}
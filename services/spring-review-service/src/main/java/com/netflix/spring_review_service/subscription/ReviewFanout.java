@@ -0,0 +1,204 @@
+package com.netflix.spring_review_service.subscription;
+
+import com.netflix.spring_review_service.types.Review;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans committed reviews out to live {@code reviewAdded} subscribers.
+ * <p>
+ * The write path only offers the review to a bounded queue and returns; if
+ * the queue is full the event is dropped and counted, never waited for. A
+ * single dispatcher thread drains the queue and hands every event to the
+ * subscribers of its show, so emission into each subscriber is serialized
+ * without locks.
+ * <p>
+ * Every subscriber has its own buffer of {@code reviews.subscription.buffer-size}
+ * events. When a client reads slower than reviews arrive, the oldest buffered
+ * events are dropped, so a slow client skips to the latest reviews and its
+ * memory stays bounded. Delivery runs on virtual threads, never on the
+ * dispatcher, so a slow socket doesn't hold up other subscribers.
+ * <p>
+ * Metrics:
+ * - reviews.subscriptions: active subscribers
+ * - reviews.subscription.dropped: dropped events, tagged with where (queue or buffer)
+ * - reviews.subscription.lag: time from commit to delivery to the subscriber
+ */
+@Component // Spring component annotation for dependency injection
+public class ReviewFanout {
+
+    /**
+     * Events per subscriber held while the client is not reading
+     */
+    private final int bufferSize;
+
+    /**
+     * Subscriber sinks by showId
+     */
+    private final Map<Integer, Set<Sinks.Many<ReviewEvent>>> topics = new ConcurrentHashMap<>();
+
+    /**
+     * Events waiting for the dispatcher
+     */
+    private final BlockingQueue<ReviewEvent> queue;
+
+    /**
+     * Delivers events to subscribers off the dispatcher thread
+     */
+    private final Scheduler delivery = Schedulers.fromExecutorService(
+            Executors.newVirtualThreadPerTaskExecutor(), "review-delivery");
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter queueDrops;
+    private final Counter bufferDrops;
+    private final Timer lag;
+
+    /**
+     * Thread moving events from the queue to the subscribers
+     */
+    private Thread dispatcher;
+
+    /**
+     * Constructor injection for the meter registry and buffer settings.
+     *
+     * @param meterRegistry Registry receiving the subscription metrics
+     * @param bufferSize    Events buffered per subscriber before the oldest are dropped
+     * @param queueCapacity Events waiting for dispatch before new ones are dropped
+     */
+    public ReviewFanout(MeterRegistry meterRegistry,
+                        @Value("${reviews.subscription.buffer-size:16}") int bufferSize,
+                        @Value("${reviews.subscription.queue-capacity:65536}") int queueCapacity) {
+        this.bufferSize = Math.max(1, bufferSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+
+        Gauge.builder("reviews.subscriptions", subscribers, AtomicInteger::get)
+                .description("Active reviewAdded subscribers")
+                .register(meterRegistry);
+        this.queueDrops = Counter.builder("reviews.subscription.dropped")
+                .description("Review events dropped before reaching a subscriber")
+                .tag("where", "queue")
+                .register(meterRegistry);
+        this.bufferDrops = Counter.builder("reviews.subscription.dropped")
+                .description("Review events dropped before reaching a subscriber")
+                .tag("where", "buffer")
+                .register(meterRegistry);
+        this.lag = Timer.builder("reviews.subscription.lag")
+                .description("Time from commit to delivery of a review event")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the dispatcher thread.
+     */
+    @PostConstruct
+    public void start() {
+        dispatcher = Thread.ofPlatform()
+                .name("review-fanout")
+                .daemon()
+                .start(this::dispatch);
+    }
+
+    /**
+     * Stops dispatching and completes all subscriptions.
+     */
+    @PreDestroy
+    public void stop() {
+        dispatcher.interrupt();
+        topics.values().forEach(sinks -> sinks.forEach(Sinks.Many::tryEmitComplete));
+        delivery.dispose();
+    }
+
+    /**
+     * Announces a committed review. Never blocks.
+     *
+     * @param review The review, with its show reference
+     */
+    public void publish(Review review) {
+        if (!topics.containsKey(review.show().showId())) {
+            // Nobody is listening to this show
+            return;
+        }
+        if (!queue.offer(new ReviewEvent(review, System.nanoTime()))) {
+            queueDrops.increment();
+        }
+    }
+
+    /**
+     * Returns the live reviews of a show. The subscriber is registered when the
+     * returned Flux is subscribed and removed when it is cancelled.
+     *
+     * @param showId Id of the show
+     * @return Reviews committed from now on; slow readers skip to the latest
+     */
+    public Flux<Review> subscribe(int showId) {
+        return Flux.defer(() -> {
+            Sinks.Many<ReviewEvent> sink = Sinks.many().unicast().onBackpressureBuffer();
+            topics.compute(showId, (id, sinks) -> {
+                Set<Sinks.Many<ReviewEvent>> updated = sinks == null ? ConcurrentHashMap.newKeySet() : sinks;
+                updated.add(sink);
+                return updated;
+            });
+            subscribers.incrementAndGet();
+
+            // The bounded buffer takes everything the sink emits, so the sink's own queue stays empty
+            return sink.asFlux()
+                    .onBackpressureBuffer(bufferSize, dropped -> bufferDrops.increment(),
+                            BufferOverflowStrategy.DROP_OLDEST)
+                    .publishOn(delivery, 1)
+                    .doOnNext(event -> lag.record(System.nanoTime() - event.publishedAt(), TimeUnit.NANOSECONDS))
+                    .map(ReviewEvent::review)
+                    .doFinally(signal -> {
+                        topics.computeIfPresent(showId, (id, sinks) -> {
+                            sinks.remove(sink);
+                            return sinks.isEmpty() ? null : sinks;
+                        });
+                        subscribers.decrementAndGet();
+                    });
+        });
+    }
+
+    /**
+     * Dispatcher loop: hand every queued event to the subscribers of its show.
+     */
+    private void dispatch() {
+        try {
+            while (true) {
+                ReviewEvent event = queue.take();
+                Set<Sinks.Many<ReviewEvent>> sinks = topics.get(event.review().show().showId());
+                if (sinks != null) {
+                    // Single emitting thread; fails only for subscribers that are already gone
+                    sinks.forEach(sink -> sink.tryEmitNext(event));
+                }
+            }
+        } catch (InterruptedException e) {
+            // Shutting down
+        }
+    }
+
+    /**
+     * A review and the time it was published, for the lag metric.
+     */
+    private record ReviewEvent(Review review, long publishedAt) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.netflix.spring_review_service.types;
+
+/**
+ * Immutable data record describing where a page of a Relay connection ends.
+ */
+public record PageInfo(
+        /**
+         * Whether more items follow the page.
+         */
+        Boolean hasNextPage,
+
+        /**
+         * Cursor of the last item of the page, to be passed as "after" for the
+         * next page. Null for an empty page.
+         */
+        String endCursor
+) {
+}
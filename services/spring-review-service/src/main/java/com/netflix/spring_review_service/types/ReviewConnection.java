@@ -0,0 +1,27 @@
+package com.netflix.spring_review_service.types;
+
+import java.util.List;
+
+/**
+ * Immutable data record representing one page of a Relay-style review connection.
+ * <p>
+ * A page holds at most the requested number of edges; the listing behind it
+ * is never materialized as a whole.
+ */
+public record ReviewConnection(
+        /**
+         * Reviews of the page, in listing order.
+         */
+        List<ReviewEdge> edges,
+
+        /**
+         * Continuation information for the next page.
+         */
+        PageInfo pageInfo,
+
+        /**
+         * Number of reviews in the whole listing.
+         */
+        Integer totalCount
+) {
+}
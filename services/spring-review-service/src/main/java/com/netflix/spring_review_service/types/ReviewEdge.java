@@ -0,0 +1,17 @@
+package com.netflix.spring_review_service.types;
+
+/**
+ * Immutable data record representing one review of a connection page.
+ */
+public record ReviewEdge(
+        /**
+         * Opaque position of the review within its listing.
+         */
+        String cursor,
+
+        /**
+         * The review.
+         */
+        Review node
+) {
+}
@@ -0,0 +1,17 @@
+package com.netflix.spring_review_service.types;
+
+/**
+ * Order of a review listing.
+ */
+public enum ReviewSort {
+
+    /**
+     * Most recent review first
+     */
+    NEWEST,
+
+    /**
+     * Highest score first, most recent first within a score
+     */
+    HIGHEST_SCORE
+}
@@ -0,0 +1,17 @@
+package com.netflix.spring_review_service.types;
+
+/**
+ * Immutable data record representing one bucket of a show's score histogram.
+ */
+public record ScoreCount(
+        /**
+         * Score of the bucket, from 1 to 5.
+         */
+        Integer score,
+
+        /**
+         * Number of reviews with this score.
+         */
+        Integer count
+) {
+}
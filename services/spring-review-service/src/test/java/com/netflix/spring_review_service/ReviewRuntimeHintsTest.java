@@ -0,0 +1,22 @@
+package com.netflix.spring_review_service;
+
+import com.netflix.spring_review_service.types.ReviewConnection;
+import com.netflix.spring_review_service.types.ReviewSort;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+class ReviewRuntimeHintsTest {
+
+    @Test
+    void registersGraphQLTypesAndSchema() {
+        RuntimeHints hints = new RuntimeHints();
+        new ReviewRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assert RuntimeHintsPredicates.reflection().onType(ReviewConnection.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints);
+        assert RuntimeHintsPredicates.reflection().onType(ReviewSort.class).test(hints);
+        assert RuntimeHintsPredicates.resource().forResource("schema/schema.graphqls").test(hints);
+    }
+}
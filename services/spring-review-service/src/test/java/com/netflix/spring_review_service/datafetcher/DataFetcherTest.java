@@ -0,0 +1,295 @@
+package com.netflix.spring_review_service.datafetcher;
+
+import com.netflix.graphql.dgs.DgsQueryExecutor;
+import com.netflix.graphql.dgs.test.EnableDgsTest;
+import com.netflix.spring_review_service.metrics.OperationTags;
+import com.netflix.spring_review_service.query.QueryCostInstrumentation;
+import com.netflix.spring_review_service.repository.ReviewRepository;
+import com.netflix.spring_review_service.store.GroupCommitWriter;
+import com.netflix.spring_review_service.store.RatingAggregates;
+import com.netflix.spring_review_service.store.ReviewStore;
+import com.netflix.spring_review_service.subscription.ReviewFanout;
+import graphql.ExecutionResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(classes = {DataFetcher.class, ReviewsDataLoader.class, ReviewRepository.class, ReviewStore.class,
+        GroupCommitWriter.class, RatingAggregates.class, ReviewFanout.class, QueryCostInstrumentation.class,
+        OperationTags.class, SimpleMeterRegistry.class}, properties = "reviews.store.seed=false")
+@EnableDgsTest
+class DataFetcherTest {
+
+    @TempDir
+    static Path storePath;
+
+    @DynamicPropertySource
+    static void storeProperties(DynamicPropertyRegistry registry) {
+        registry.add("reviews.store.path", storePath::toString);
+    }
+
+    @Autowired
+    private DgsQueryExecutor dgsQueryExecutor;
+
+    @Autowired
+    private ReviewStore reviewStore;
+
+    @SpyBean
+    private ReviewRepository reviewRepository;
+
+    @Test
+    void entitiesAreBatchedAndKeepRepresentationOrder() {
+        for (int showId = 1; showId <= 3; showId++) {
+            reviewStore.append(showId, 5, "Great show " + showId);
+        }
+
+        @Language("GraphQL")
+        var query = """
+            query ($representations: [_Any!]!) {
+                _entities(representations: $representations) {
+                    ... on Show { showId reviews { edges { node { text } } } }
+                }
+            }
+        """;
+        var representations = List.of(
+                Map.of("__typename", "Show", "showId", 3),
+                Map.of("__typename", "Show", "showId", 1),
+                Map.of("__typename", "Show", "showId", 2));
+
+        List<Integer> showIds = dgsQueryExecutor.executeAndExtractJsonPath(query, "data._entities[*].showId",
+                Map.of("representations", representations));
+        List<String> texts = dgsQueryExecutor.executeAndExtractJsonPath(query, "data._entities[*].reviews.edges[0].node.text",
+                Map.of("representations", representations));
+
+        assert showIds.equals(List.of(3, 1, 2));
+        assert texts.equals(List.of("Great show 3", "Great show 1", "Great show 2"));
+        // One batch per execution, two executions
+        verify(reviewRepository, times(2)).reviewsByShow(anyCollection());
+    }
+
+    @Test
+    void addReviewIsReadableOnceCommitted() {
+        @Language("GraphQL")
+        var mutation = """
+            mutation {
+                addReview(showId: 42, score: 4, text: "Worth a rewatch") { score text show { showId } }
+            }
+        """;
+        String text = dgsQueryExecutor.executeAndExtractJsonPath(mutation, "data.addReview.text");
+        assert text.equals("Worth a rewatch");
+
+        @Language("GraphQL")
+        var query = """
+            query ($representations: [_Any!]!) {
+                _entities(representations: $representations) {
+                    ... on Show { reviews(first: 1) { edges { node { score text } } } }
+                }
+            }
+        """;
+        Integer score = dgsQueryExecutor.executeAndExtractJsonPath(query, "data._entities[0].reviews.edges[0].node.score",
+                Map.of("representations", List.of(Map.of("__typename", "Show", "showId", 42))));
+        assert score == 4;
+    }
+
+    @Test
+    void addReviewRejectsOutOfRangeScores() {
+        var result = dgsQueryExecutor.execute("mutation { addReview(showId: 42, score: 9, text: \"?\") { score } }");
+        assert !result.getErrors().isEmpty();
+    }
+
+    @Test
+    void ratingsAreServedFromAggregates() {
+        reviewStore.append(77, 5, "Loved it");
+        reviewStore.append(77, 4, "Good");
+        reviewStore.append(77, 4, "Solid");
+
+        @Language("GraphQL")
+        var query = """
+            query ($representations: [_Any!]!) {
+                _entities(representations: $representations) {
+                    ... on Show { averageScore reviewCount scoreHistogram { score count } }
+                }
+            }
+        """;
+        var variables = Map.<String, Object>of("representations", List.of(Map.of("__typename", "Show", "showId", 77)));
+        Double average = dgsQueryExecutor.executeAndExtractJsonPath(query, "data._entities[0].averageScore", variables);
+        Integer count = dgsQueryExecutor.executeAndExtractJsonPath(query, "data._entities[0].reviewCount", variables);
+        List<Integer> histogram = dgsQueryExecutor.executeAndExtractJsonPath(query,
+                "data._entities[0].scoreHistogram[*].count", variables);
+
+        assert Math.abs(average - 13 / 3.0) < 1e-9;
+        assert count == 3;
+        assert histogram.equals(List.of(0, 0, 0, 2, 1));
+        // Aggregates only, no review lookups
+        verify(reviewRepository, times(0)).reviewsByShow(anyCollection());
+    }
+
+    @Test
+    void reviewsArePagedByCursorInEitherOrder() {
+        reviewStore.append(88, 3, "a");
+        reviewStore.append(88, 5, "b");
+        reviewStore.append(88, 1, "c");
+        reviewStore.append(88, 5, "d");
+        reviewStore.append(88, 4, "e");
+
+        @Language("GraphQL")
+        var query = """
+            query ($representations: [_Any!]!, $after: String, $sort: ReviewSort) {
+                _entities(representations: $representations) {
+                    ... on Show {
+                        reviews(first: 2, after: $after, sort: $sort) {
+                            edges { node { text } }
+                            pageInfo { hasNextPage endCursor }
+                            totalCount
+                        }
+                    }
+                }
+            }
+        """;
+        var representations = List.of(Map.of("__typename", "Show", "showId", 88));
+
+        List<String> newest = new ArrayList<>();
+        List<String> highest = new ArrayList<>();
+        for (var order : Map.of("NEWEST", newest, "HIGHEST_SCORE", highest).entrySet()) {
+            String after = null;
+            boolean hasNextPage = true;
+            while (hasNextPage) {
+                var variables = new HashMap<String, Object>();
+                variables.put("representations", representations);
+                variables.put("after", after);
+                variables.put("sort", order.getKey());
+                var context = dgsQueryExecutor.executeAndGetDocumentContext(query, variables);
+
+                List<String> texts = context.read("data._entities[0].reviews.edges[*].node.text");
+                assert texts.size() <= 2;
+                assert context.<Integer>read("data._entities[0].reviews.totalCount") == 5;
+                order.getValue().addAll(texts);
+                hasNextPage = context.read("data._entities[0].reviews.pageInfo.hasNextPage");
+                after = context.read("data._entities[0].reviews.pageInfo.endCursor");
+            }
+        }
+
+        assert newest.equals(List.of("e", "d", "c", "b", "a"));
+        assert highest.equals(List.of("d", "b", "e", "a", "c"));
+    }
+
+    @Test
+    void invalidCursorsAreRejected() {
+        var result = dgsQueryExecutor.execute("{ recentReviews(after: \"bogus\") { totalCount } }");
+        assert !result.getErrors().isEmpty();
+    }
+
+    @Test
+    void forgedCursorsAreRejected() {
+        reviewStore.append(87, 5, "a");
+
+        @Language("GraphQL")
+        var query = """
+            query ($representations: [_Any!]!, $after: String, $sort: ReviewSort) {
+                _entities(representations: $representations) {
+                    ... on Show { reviews(first: 2, after: $after, sort: $sort) { totalCount } }
+                }
+            }
+        """;
+        var representations = List.of(Map.of("__typename", "Show", "showId", 87));
+        // A score bucket past the last one, a bucket on a listing without buckets, an index past an int
+        var forged = Map.of(
+                "HIGHEST_SCORE", 6L << 32,
+                "NEWEST", 1L << 32,
+                "RECENT", 1L << 31);
+
+        for (var cursor : forged.entrySet()) {
+            var after = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((cursor.getKey() + ":" + cursor.getValue()).getBytes(StandardCharsets.UTF_8));
+            ExecutionResult result = cursor.getKey().equals("RECENT")
+                    ? dgsQueryExecutor.execute("query ($after: String) { recentReviews(after: $after) { totalCount } }",
+                            Map.of("after", after))
+                    : dgsQueryExecutor.execute(query, Map.of("representations", representations, "after", after,
+                            "sort", cursor.getKey()));
+
+            assert result.getErrors().size() == 1;
+            assert result.getErrors().get(0).getMessage().contains("Invalid cursor");
+        }
+    }
+
+    @Test
+    void reviewAddedStreamsCommittedReviews() throws Exception {
+        ExecutionResult subscription = dgsQueryExecutor.execute("subscription { reviewAdded(showId: 99) { score text } }");
+        Publisher<ExecutionResult> publisher = subscription.getData();
+        CompletableFuture<ExecutionResult> next = Flux.from(publisher).next().toFuture();
+
+        dgsQueryExecutor.execute("mutation { addReview(showId: 98, score: 2, text: \"Other show\") { score } }");
+        dgsQueryExecutor.execute("mutation { addReview(showId: 99, score: 5, text: \"Live\") { score } }");
+
+        Map<String, Map<String, Object>> data = next.get(5, TimeUnit.SECONDS).getData();
+        assert data.get("reviewAdded").get("text").equals("Live");
+    }
+
+    @Test
+    void entitiesCostScalesWithRepresentationsAndPageSize() {
+        @Language("GraphQL")
+        var query = """
+            query ($representations: [_Any!]!) {
+                _entities(representations: $representations) {
+                    ... on Show { showId reviews(first: 10) { edges { node { text } } } }
+                }
+            }
+        """;
+        var representations = List.of(
+                Map.of("__typename", "Show", "showId", 1),
+                Map.of("__typename", "Show", "showId", 2),
+                Map.of("__typename", "Show", "showId", 3));
+
+        ExecutionResult result = dgsQueryExecutor.execute(query, Map.of("representations", representations));
+
+        // 3 shows x (show + connection + 10 x (edge + review))
+        var cost = (Map<?, ?>) result.getExtensions().get("cost");
+        assert ((Number) cost.get("estimated")).longValue() == 66;
+    }
+
+    @Test
+    void acceptsAFederatedLolomoPage() {
+        @Language("GraphQL")
+        var query = """
+            query ($representations: [_Any!]!) {
+                _entities(representations: $representations) {
+                    ... on Show { reviews(first: 3) { edges { node { score text } } } }
+                }
+            }
+        """;
+        // 40 rows of 20 shows
+        var representations = new ArrayList<Map<String, Object>>();
+        for (int showId = 1; showId <= 40 * 20; showId++) {
+            representations.add(Map.of("__typename", "Show", "showId", showId));
+        }
+
+        ExecutionResult result = dgsQueryExecutor.execute(query, Map.of("representations", representations));
+
+        // 800 shows x (show + connection + 3 x (edge + review))
+        assert result.getErrors().isEmpty();
+        var cost = (Map<?, ?>) result.getExtensions().get("cost");
+        assert ((Number) cost.get("estimated")).longValue() == 6400;
+    }
+}
@@ -0,0 +1,159 @@
+package com.netflix.spring_review_service.store;
+
+import com.netflix.spring_review_service.types.Review;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+class GroupCommitWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void concurrentWritesShareCommits() throws Exception {
+        var store = new ReviewStore(directory.toString(), DataSize.ofMegabytes(1), 4, Duration.ofHours(1));
+        store.open();
+        var registry = new SimpleMeterRegistry();
+        var writer = new GroupCommitWriter(store, registry, 256, Duration.ofMillis(5), 10_000);
+        writer.start();
+
+        List<CompletableFuture<Review>> futures;
+        try (var threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            futures = IntStream.range(0, 2_000)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> writer.submit(i % 10, 1 + i % 5, "Review " + i), threads)
+                            .thenCompose(future -> future))
+                    .toList();
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        }
+
+        assert store.size() == 2_000;
+        assert registry.counter("reviews.writes").count() == 2_000;
+        // Far fewer fsyncs than writes
+        assert registry.summary("reviews.commit.batch.size").count() < 2_000;
+
+        writer.stop();
+        store.close();
+    }
+
+    @Test
+    void invalidWritesFailAlone() throws Exception {
+        var store = new ReviewStore(directory.toString(), DataSize.ofMegabytes(1), 4, Duration.ofHours(1));
+        store.open();
+        var writer = new GroupCommitWriter(store, new SimpleMeterRegistry(), 256, Duration.ofMillis(5), 10_000);
+        writer.start();
+
+        var tooLong = writer.submit(1, 5, "x".repeat(ReviewStore.MAX_TEXT_BYTES + 1));
+        var valid = writer.submit(1, 5, "Fine");
+
+        assert valid.get().text().equals("Fine");
+        try {
+            tooLong.get();
+            assert false;
+        } catch (ExecutionException e) {
+            assert e.getCause() instanceof IllegalArgumentException;
+        }
+
+        writer.stop();
+        store.close();
+    }
+
+    @Test
+    void failedFsyncStopsAllWrites() throws Exception {
+        var failing = new AtomicBoolean(true);
+        var store = new ReviewStore(directory.toString(), DataSize.ofMegabytes(1), 4, Duration.ofHours(1)) {
+            @Override
+            public void flush() {
+                if (failing.get()) {
+                    throw new UncheckedIOException(new IOException("Injected fsync failure"));
+                }
+                super.flush();
+            }
+        };
+        store.open();
+        var writer = new GroupCommitWriter(store, new SimpleMeterRegistry(), 256, Duration.ofMillis(5), 10_000);
+        writer.start();
+
+        var failed = writer.submit(1, 5, "Lost");
+        try {
+            failed.get();
+            assert false;
+        } catch (ExecutionException e) {
+            assert e.getCause() instanceof IllegalStateException;
+        }
+
+        // A retry must not append the review again
+        long size = store.size();
+        try {
+            writer.submit(1, 5, "Lost").get();
+            assert false;
+        } catch (ExecutionException e) {
+            assert e.getCause() instanceof IllegalStateException;
+        }
+        assert store.size() == size;
+
+        failing.set(false);
+        writer.stop();
+        store.close();
+    }
+
+    @Test
+    void writesRacingAFailedFsyncAreNeverCommitted() throws Exception {
+        var store = new ReviewStore(directory.toString(), DataSize.ofMegabytes(1), 4, Duration.ofHours(1)) {
+            @Override
+            public void flush() {
+                throw new UncheckedIOException(new IOException("Injected fsync failure"));
+            }
+        };
+        store.open();
+        var writer = new GroupCommitWriter(store, new SimpleMeterRegistry(), 16, Duration.ofMillis(1), 10_000);
+        writer.start();
+
+        List<CompletableFuture<Review>> futures;
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            futures = IntStream.range(0, 2_000)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> writer.submit(1, 5, "Review " + i), executor)
+                            .thenCompose(future -> future))
+                    .toList();
+        }
+
+        futures.forEach(future -> future.handle((review, e) -> null).join());
+
+        // Only the batch whose fsync failed was appended; everything else was rejected untouched
+        assert futures.stream().allMatch(CompletableFuture::isCompletedExceptionally);
+        assert store.size() <= 16;
+
+        writer.stop();
+    }
+
+    @Test
+    void rejectsWritesAfterShutdown() throws Exception {
+        var store = new ReviewStore(directory.toString(), DataSize.ofMegabytes(1), 4, Duration.ofHours(1));
+        store.open();
+        var writer = new GroupCommitWriter(store, new SimpleMeterRegistry(), 256, Duration.ofMillis(5), 10_000);
+        writer.start();
+        writer.stop();
+
+        try {
+            writer.submit(1, 5, "Too late").get();
+            assert false;
+        } catch (ExecutionException e) {
+            assert e.getCause() instanceof RejectedExecutionException;
+            assert e.getCause().getMessage().equals("Review writer is shut down");
+        }
+        store.close();
+    }
+}
@@ -0,0 +1,74 @@
+package com.netflix.spring_review_service.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+class RatingAggregatesTest {
+
+    @TempDir
+    Path directory;
+
+    private ReviewStore openStore() throws IOException {
+        ReviewStore store = new ReviewStore(directory.toString(), DataSize.ofMegabytes(1), 4, Duration.ofHours(1));
+        store.open();
+        return store;
+    }
+
+    @Test
+    void updatesOnWrite() throws IOException {
+        ReviewStore store = openStore();
+        RatingAggregates aggregates = new RatingAggregates(store, Duration.ofHours(1));
+        aggregates.open();
+
+        store.append(1, 5, "Great");
+        store.append(1, 2, "Meh");
+        store.append(2, 3, "Okay");
+
+        ShowRating rating = aggregates.rating(1);
+        assert rating.count() == 2;
+        assert rating.average() == 3.5;
+        assert rating.count(5) == 1 && rating.count(2) == 1 && rating.count(3) == 0;
+        assert aggregates.rating(3) == ShowRating.EMPTY;
+        aggregates.close();
+        store.close();
+    }
+
+    @Test
+    void restoresFromSnapshotAndReplaysNewerReviews() throws IOException {
+        ReviewStore store = openStore();
+        RatingAggregates aggregates = new RatingAggregates(store, Duration.ofHours(1));
+        aggregates.open();
+        store.append(1, 5, "Great");
+        store.append(1, 4, "Good");
+        aggregates.close();
+        assert Files.exists(directory.resolve("aggregates.snapshot"));
+
+        // Written after the snapshot, so only known to the review log
+        store.append(1, 1, "Bad");
+        store.close();
+
+        ReviewStore reopened = openStore();
+        RatingAggregates restored = new RatingAggregates(reopened, Duration.ofHours(1));
+        restored.open();
+        assert restored.rating(1).count() == 3;
+        assert restored.rating(1).sum() == 10;
+
+        // Without the snapshot the same aggregates are rebuilt from the log
+        restored.close();
+        reopened.close();
+        Files.delete(directory.resolve("aggregates.snapshot"));
+        ReviewStore rebuiltStore = openStore();
+        RatingAggregates rebuilt = new RatingAggregates(rebuiltStore, Duration.ofHours(1));
+        rebuilt.open();
+        assert rebuilt.rating(1).count() == 3;
+        assert rebuilt.rating(1).count(1) == 1;
+        rebuilt.close();
+        rebuiltStore.close();
+    }
+}
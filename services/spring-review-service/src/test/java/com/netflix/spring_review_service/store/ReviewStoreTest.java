@@ -0,0 +1,140 @@
+package com.netflix.spring_review_service.store;
+
+import com.netflix.spring_review_service.types.Review;
+import com.netflix.spring_review_service.types.ReviewSort;
+import com.netflix.spring_review_service.types.Show;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+class ReviewStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private ReviewStore open() throws IOException {
+        // Smallest segment size, so a few hundred reviews span several segments
+        ReviewStore store = new ReviewStore(directory.toString(), DataSize.ofBytes(1), 2, Duration.ofHours(1));
+        store.open();
+        return store;
+    }
+
+    @Test
+    void readsReviewsPerShowNewestFirst() throws IOException {
+        ReviewStore store = open();
+        store.append(1, 5, "Great show");
+        store.append(2, 1, "Not enough commercials");
+        store.append(1, 3, "Too long");
+
+        assert store.count(1) == 2;
+        assert store.reviews(1, 10).equals(List.of(
+                new Review(3, "Too long", new Show(1, null)),
+                new Review(5, "Great show", new Show(1, null))));
+        assert store.recent(2).stream().map(Review::text).toList().equals(List.of("Too long", "Not enough commercials"));
+        store.close();
+    }
+
+    @Test
+    void emptyLimitsReturnNoReviews() throws IOException {
+        ReviewStore store = open();
+        store.append(1, 5, "Great show");
+
+        assert store.reviews(1, 0).isEmpty();
+        assert store.recent(0).isEmpty();
+        assert store.reviews(1, -1).isEmpty();
+        store.close();
+    }
+
+    @Test
+    void recoversAfterRestartAndDropsTornTail() throws IOException {
+        ReviewStore store = open();
+        store.append(7, 4, "First");
+        store.append(7, 2, "Second");
+        store.close();
+
+        // Simulate a crash in the middle of a third record: a length without a valid payload
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.getFileName().toString().startsWith("segment-")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            long end = 2L * ReviewStore.HEADER_SIZE + 2 * ReviewStore.TEXT_OFFSET + "First".length() + "Second".length();
+            channel.write(ByteBuffer.allocate(8).putInt(40).putInt(12345).flip(), end);
+        }
+
+        ReviewStore recovered = open();
+        assert recovered.size() == 2;
+        recovered.append(7, 5, "Third");
+        assert recovered.reviews(7, 10).stream().map(Review::text).toList().equals(List.of("Third", "Second", "First"));
+        recovered.close();
+    }
+
+    @Test
+    void compactionKeepsReviewsReadableAcrossRestarts() throws IOException {
+        ReviewStore store = open();
+        // Texts close to the maximum, so each segment holds a single review
+        String text = "x".repeat(ReviewStore.MAX_TEXT_BYTES - 8);
+        for (int i = 0; i < 12; i++) {
+            store.append(i % 3, i % 5, i + text);
+        }
+        store.compact();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assert files.anyMatch(file -> file.getFileName().toString().startsWith("compacted-"));
+        }
+        List<String> expected = new ArrayList<>();
+        for (int i = 9; i >= 0; i -= 3) {
+            expected.add(i + text);
+        }
+        assert store.reviews(0, 10).stream().map(Review::text).toList().equals(expected);
+        store.close();
+
+        ReviewStore reopened = open();
+        assert reopened.size() == 12;
+        assert reopened.reviews(0, 10).stream().map(Review::text).toList().equals(expected);
+        assert reopened.recent(1).getFirst().text().equals(11 + text);
+        reopened.close();
+    }
+
+    @Test
+    void positionedScansResumeInIndexOrder() throws IOException {
+        ReviewStore store = open();
+        int[] scores = {3, 5, 1, 5, 4, 2, 5};
+        for (int i = 0; i < scores.length; i++) {
+            store.append(9, scores[i], "r" + i);
+        }
+
+        for (ReviewSort sort : ReviewSort.values()) {
+            List<String> texts = new ArrayList<>();
+            long[] after = {ReviewStore.START};
+            boolean[] more = {true};
+            while (more[0]) {
+                int before = texts.size();
+                store.scan(9, sort, after[0], (record, position) -> {
+                    if (texts.size() - before == 3) {
+                        return false;
+                    }
+                    texts.add(record.text());
+                    after[0] = position;
+                    return true;
+                });
+                more[0] = texts.size() - before == 3;
+            }
+            assert texts.equals(sort == ReviewSort.NEWEST
+                    ? List.of("r6", "r5", "r4", "r3", "r2", "r1", "r0")
+                    : List.of("r6", "r3", "r1", "r4", "r0", "r5", "r2")) : sort + " " + texts;
+        }
+        store.close();
+    }
+}
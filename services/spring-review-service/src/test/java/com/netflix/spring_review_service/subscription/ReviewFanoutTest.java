@@ -0,0 +1,64 @@
+package com.netflix.spring_review_service.subscription;
+
+import com.netflix.spring_review_service.types.Review;
+import com.netflix.spring_review_service.types.Show;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+class ReviewFanoutTest {
+
+    @Test
+    void slowSubscribersSkipToTheLatestReviews() throws InterruptedException {
+        var registry = new SimpleMeterRegistry();
+        var fanout = new ReviewFanout(registry, 4, 1_000);
+        fanout.start();
+
+        List<String> received = new CopyOnWriteArrayList<>();
+        var slow = new BaseSubscriber<Review>() {
+            @Override
+            protected void hookOnSubscribe(org.reactivestreams.Subscription subscription) {
+                // No demand until the test asks for it
+            }
+
+            @Override
+            protected void hookOnNext(Review review) {
+                received.add(review.text());
+            }
+        };
+        fanout.subscribe(5).subscribe(slow);
+        assert registry.get("reviews.subscriptions").gauge().value() == 1;
+
+        for (int i = 0; i < 20; i++) {
+            fanout.publish(new Review(3, "r" + i, new Show(5, null)));
+        }
+        // Reviews of shows nobody follows never enter the queue
+        fanout.publish(new Review(3, "elsewhere", new Show(6, null)));
+        awaitDrops(registry, 20 - 4 - 1);
+
+        slow.request(Long.MAX_VALUE);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (received.size() < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // One event prefetched by the delivery stage, then the four newest from the buffer
+        assert received.size() == 5 : received;
+        assert received.subList(1, 5).equals(List.of("r16", "r17", "r18", "r19")) : received;
+
+        slow.dispose();
+        assert registry.get("reviews.subscriptions").gauge().value() == 0;
+        fanout.stop();
+    }
+
+    private static void awaitDrops(SimpleMeterRegistry registry, int drops) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (registry.get("reviews.subscription.dropped").tag("where", "buffer").counter().count() < drops
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assert registry.get("reviews.subscription.dropped").tag("where", "buffer").counter().count() == drops;
+    }
+}
@@ -0,0 +1,136 @@
+#!/usr/bin/env bash
+#
+# Startup benchmark of a subgraph in every build mode.
+#
+# Usage: ./startup-benchmark.sh <lolomo|review> [runs]
+#
+# Modes, each skipped when its artifact is missing:
+#   jvm      plain boot jar
+#   aot-cds  boot jar with Spring AOT enabled and the AppCDS archive (./gradlew cdsArchive -PfastStart)
+#   native   GraalVM native executable (./gradlew nativeCompile -PfastStart)
+#
+# Every run starts the service on empty data directories and reports the time
+# from launch until the first query answered without errors, and the resident
+# set size at that moment. The median of all runs is printed per mode.
+#
+# Environment:
+#   BUILD=0   skip building the jar and the CDS archive
+#   NATIVE=1  also build the native executable (slow, needs a GraalVM JDK)
+#   PORT      port to start the service on (default 8080 for lolomo, 8181 for review)
+
+set -euo pipefail
+
+service=${1:?usage: $0 <lolomo|review> [runs]}
+runs=${2:-5}
+
+case "$service" in
+    lolomo)
+        project=spring-lolomo-service
+        port=${PORT:-8080}
+        query='{"query":"{ search(filter: {title: \"Stranger\"}, first: 1) { title } }"}'
+        data_property=lolomo.progress.path
+        ;;
+    review)
+        project=spring-review-service
+        port=${PORT:-8181}
+        query='{"query":"{ recentReviews(first: 1) { edges { node { score } } } }"}'
+        data_property=reviews.store.path
+        ;;
+    *)
+        echo "Unknown service $service, expected lolomo or review" >&2
+        exit 1
+        ;;
+esac
+
+cd "$(dirname "$0")/$project"
+java=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+if [[ "${BUILD:-1}" != 0 ]]; then
+    sh ./gradlew -q bootJar cdsArchive -PfastStart
+    if [[ "${NATIVE:-0}" == 1 ]]; then
+        sh ./gradlew -q nativeCompile -PfastStart
+    fi
+fi
+
+jar=$(ls build/libs/*.jar | grep -v -- '-plain\.jar$' | head -n 1)
+work=$(mktemp -d)
+trap 'rm -rf "$work"' EXIT
+
+now_ms() {
+    echo $(($(date +%s%N) / 1000000))
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print (NR % 2) ? values[(NR + 1) / 2] : int((values[NR / 2] + values[NR / 2 + 1]) / 2) }'
+}
+
+# Runs one start of a mode; prints "<milliseconds to first query> <rss in KB>"
+measure() {
+    local mode=$1 dir=$2
+    shift 2
+    local data="$work/$mode-data"
+    rm -rf "$data"
+
+    local start
+    start=$(now_ms)
+    (cd "$dir" && exec "$@" --server.port="$port" --"$data_property"="$data") >"$work/$mode.log" 2>&1 &
+    local pid=$!
+
+    local deadline=$((start + 120000))
+    while true; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$mode exited before answering, see its log:" >&2
+            tail -n 20 "$work/$mode.log" >&2
+            return 1
+        fi
+        local body
+        body=$(curl -sf -H 'Content-Type: application/json' -d "$query" "http://localhost:$port/graphql" 2>/dev/null || true)
+        if [[ "$body" == *'"data"'* && "$body" != *'"errors"'* ]]; then
+            break
+        fi
+        if (($(now_ms) > deadline)); then
+            echo "$mode did not answer within 2 minutes" >&2
+            kill "$pid"
+            return 1
+        fi
+        sleep 0.01
+    done
+
+    local elapsed rss
+    elapsed=$(($(now_ms) - start))
+    rss=$(ps -o rss= -p "$pid" | tr -d ' ')
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$elapsed $rss"
+}
+
+benchmark() {
+    local mode=$1
+    shift
+    : >"$work/$mode.results"
+    for ((run = 1; run <= runs; run++)); do
+        measure "$mode" "$@" >>"$work/$mode.results"
+    done
+    local time rss
+    time=$(cut -d ' ' -f 1 "$work/$mode.results" | median)
+    rss=$(cut -d ' ' -f 2 "$work/$mode.results" | median)
+    printf '%-8s %18s %10s\n' "$mode" "$time" "$((rss / 1024))"
+}
+
+echo "$project, median of $runs runs"
+printf '%-8s %18s %10s\n' mode first-query-ms rss-mb
+
+benchmark jvm "$PWD" "$java" -jar "$PWD/$jar"
+
+if [[ -f build/cds/application.jsa ]]; then
+    benchmark aot-cds "$PWD/build/cds" "$java" -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+        -jar "$(basename "$jar")"
+else
+    echo "aot-cds  skipped, run ./gradlew cdsArchive -PfastStart"
+fi
+
+if [[ -x build/native/nativeCompile/$project ]]; then
+    benchmark native "$PWD" "$PWD/build/native/nativeCompile/$project"
+else
+    echo "native   skipped, run ./gradlew nativeCompile -PfastStart"
+fi